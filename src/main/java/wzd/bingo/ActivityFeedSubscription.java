@@ -0,0 +1,344 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live activity feed for one event. Streams new entries over a WebSocket and
+ * reconnects with backoff, resuming from the newest timestamp delivered so far.
+ * While the stream is down the feed falls back to polling with the since
+ * cursor, slowing down while nothing is happening.
+ *
+ * Listener callbacks arrive on OkHttp or scheduler threads.
+ */
+@Slf4j
+public class ActivityFeedSubscription
+{
+    private static final long MIN_RECONNECT_MS = 1000;
+    private static final long MAX_RECONNECT_MS = 60_000;
+    private static final long MIN_POLL_MS = 15_000;
+    private static final long MAX_POLL_MS = 120_000;
+    private static final int NORMAL_CLOSURE = 1000;
+
+    /**
+     * Receives entries from the stream or the fallback poll, oldest first per delivery
+     */
+    public interface Listener
+    {
+        void onActivities(JsonArray activities);
+
+        /**
+         * Called when the feed switches between streaming and polling
+         */
+        default void onLiveChanged(boolean live)
+        {
+        }
+    }
+
+    private final String bingoId;
+    private final OkHttpClient streamClient;
+    private final BingoService bingoService;
+    private final BingoSession session;
+    private final BingoExecutors executors;
+    private final Listener listener;
+    private final Gson gson = new Gson();
+
+    private volatile long cursor;
+    private volatile boolean running;
+    private boolean live;
+    private volatile WebSocket webSocket;
+    private ScheduledFuture<?> reconnectTask;
+    private ScheduledFuture<?> pollTask;
+    // Bumped whenever polling stops or restarts, so a poll still in flight cannot start a second chain
+    private long pollGeneration;
+    private long reconnectDelayMs = MIN_RECONNECT_MS;
+    private long pollDelayMs = MIN_POLL_MS;
+
+    ActivityFeedSubscription(String bingoId, long cursor, OkHttpClient streamClient, BingoService bingoService,
+        BingoSession session, BingoExecutors executors, Listener listener)
+    {
+        this.bingoId = bingoId;
+        this.cursor = cursor;
+        this.streamClient = streamClient;
+        this.bingoService = bingoService;
+        this.session = session;
+        this.executors = executors;
+        this.listener = listener;
+    }
+
+    synchronized void start()
+    {
+        if (running)
+        {
+            return;
+        }
+        running = true;
+        connect();
+        schedulePoll(pollGeneration, MIN_POLL_MS);
+    }
+
+    /**
+     * Close the stream and stop polling. No callbacks are made afterwards.
+     */
+    public synchronized void stop()
+    {
+        running = false;
+        cancel(reconnectTask);
+        reconnectTask = null;
+        stopPolling();
+        if (webSocket != null)
+        {
+            webSocket.close(NORMAL_CLOSURE, "Unsubscribed");
+            webSocket = null;
+        }
+        log.debug("Stopped activity feed for event {}", bingoId);
+    }
+
+    public String getBingoId()
+    {
+        return bingoId;
+    }
+
+    public synchronized boolean isLive()
+    {
+        return live;
+    }
+
+    private synchronized void connect()
+    {
+        reconnectTask = null;
+        if (!running)
+        {
+            return;
+        }
+
+        BingoSession.Snapshot current = session.get();
+        Request request = new Request.Builder()
+            .url(current.getAuthApiUrl() + "/api/bingo/activity/" + bingoId + "/stream?since=" + cursor)
+            .addHeader("Authorization", current.getAuthorizationHeader())
+            .build();
+
+        webSocket = streamClient.newWebSocket(request, new StreamListener());
+    }
+
+    private synchronized void onStreamOpen(WebSocket socket)
+    {
+        if (socket != webSocket || !running)
+        {
+            return;
+        }
+
+        reconnectDelayMs = MIN_RECONNECT_MS;
+        setLive(true);
+
+        // The stream resumed from the cursor, so polling is no longer needed
+        stopPolling();
+        log.info("Live activity feed connected for event {}", bingoId);
+    }
+
+    private synchronized void onStreamLost(WebSocket socket, String reason)
+    {
+        if (socket != webSocket || !running)
+        {
+            return;
+        }
+
+        webSocket = null;
+        setLive(false);
+        log.debug("Activity feed for event {} lost ({}), reconnecting in {}ms", bingoId, reason, reconnectDelayMs);
+
+        try
+        {
+            reconnectTask = executors.scheduler().schedule(this::connect, reconnectDelayMs, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            return;
+        }
+        reconnectDelayMs = Math.min(MAX_RECONNECT_MS, reconnectDelayMs * 2);
+
+        if (pollTask == null)
+        {
+            pollDelayMs = MIN_POLL_MS;
+            schedulePoll(pollGeneration, 0);
+        }
+    }
+
+    private void setLive(boolean live)
+    {
+        if (this.live != live)
+        {
+            this.live = live;
+            listener.onLiveChanged(live);
+        }
+    }
+
+    private synchronized void stopPolling()
+    {
+        pollGeneration++;
+        cancel(pollTask);
+        pollTask = null;
+    }
+
+    private synchronized void schedulePoll(long generation, long delayMs)
+    {
+        if (!running || live || generation != pollGeneration)
+        {
+            return;
+        }
+
+        try
+        {
+            pollTask = executors.scheduler().schedule(() -> poll(generation), delayMs, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            pollTask = null;
+        }
+    }
+
+    private void poll(long generation)
+    {
+        bingoService.fetchActivitySince(bingoId, cursor).thenAccept(result -> {
+            synchronized (this)
+            {
+                if (generation != pollGeneration)
+                {
+                    // Polling was stopped or restarted while this request was out
+                    return;
+                }
+            }
+
+            boolean active = result.isPresent() && deliver(result.get());
+            synchronized (this)
+            {
+                // Poll quickly while things are happening and back off while the feed is quiet
+                pollDelayMs = active ? MIN_POLL_MS : Math.min(MAX_POLL_MS, pollDelayMs * 2);
+                schedulePoll(generation, pollDelayMs);
+            }
+        });
+    }
+
+    /**
+     * Hand entries to the listener and advance the cursor. Returns whether anything
+     * newer than the previous cursor arrived.
+     */
+    private boolean deliver(JsonArray activities)
+    {
+        if (activities.size() == 0 || !running)
+        {
+            return false;
+        }
+
+        long previous = cursor;
+        long newest = previous;
+        for (JsonElement element : activities)
+        {
+            if (element.isJsonObject() && element.getAsJsonObject().has("timestamp"))
+            {
+                try
+                {
+                    newest = Math.max(newest, element.getAsJsonObject().get("timestamp").getAsLong());
+                }
+                catch (NumberFormatException | UnsupportedOperationException e)
+                {
+                    log.debug("Ignoring activity with unreadable timestamp");
+                }
+            }
+        }
+        cursor = newest;
+
+        listener.onActivities(activities);
+        return newest > previous;
+    }
+
+    private void onStreamMessage(WebSocket socket, String text)
+    {
+        if (socket != webSocket)
+        {
+            return;
+        }
+
+        try
+        {
+            JsonElement message = gson.fromJson(text, JsonElement.class);
+            JsonArray activities;
+            if (message.isJsonArray())
+            {
+                activities = message.getAsJsonArray();
+            }
+            else if (message.isJsonObject() && message.getAsJsonObject().has("activities"))
+            {
+                activities = message.getAsJsonObject().getAsJsonArray("activities");
+            }
+            else if (message.isJsonObject() && message.getAsJsonObject().has("activityType"))
+            {
+                activities = new JsonArray();
+                activities.add(message);
+            }
+            else
+            {
+                // Keepalives and other control messages
+                return;
+            }
+            deliver(activities);
+        }
+        catch (Exception e)
+        {
+            log.debug("Ignoring unreadable activity feed message: {}", e.getMessage());
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> task)
+    {
+        if (task != null)
+        {
+            task.cancel(false);
+        }
+    }
+
+    private class StreamListener extends WebSocketListener
+    {
+        @Override
+        public void onOpen(WebSocket socket, Response response)
+        {
+            onStreamOpen(socket);
+        }
+
+        @Override
+        public void onMessage(WebSocket socket, String text)
+        {
+            onStreamMessage(socket, text);
+        }
+
+        @Override
+        public void onClosing(WebSocket socket, int code, String reason)
+        {
+            socket.close(NORMAL_CLOSURE, null);
+        }
+
+        @Override
+        public void onClosed(WebSocket socket, int code, String reason)
+        {
+            onStreamLost(socket, "closed " + code);
+        }
+
+        @Override
+        public void onFailure(WebSocket socket, Throwable t, Response response)
+        {
+            onStreamLost(socket, response != null ? "HTTP " + response.code() : t.getMessage());
+        }
+    }
+}
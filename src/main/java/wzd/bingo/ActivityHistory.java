@@ -0,0 +1,170 @@
+package wzd.bingo;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded, oldest-first history of one event's activity feed. Tracks the
+ * newest and oldest timestamps seen so the feed can be synced with a since
+ * cursor and paged backwards on demand. Entries already held are ignored, so
+ * overlapping pages are harmless.
+ *
+ * Only used from the Swing event thread.
+ */
+public class ActivityHistory
+{
+    private static final Comparator<JsonObject> BY_TIMESTAMP = Comparator.comparingLong(ActivityHistory::timestampOf);
+
+    private final String bingoId;
+    private final int capacity;
+    private final Deque<JsonObject> entries = new ArrayDeque<>();
+    private final Set<String> keys = new HashSet<>();
+    private boolean hasOlder = true;
+
+    public ActivityHistory(String bingoId, int capacity)
+    {
+        this.bingoId = bingoId;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Add entries at least as new as the cursor. Returns the ones not seen before,
+     * oldest first, in the order they should be appended to the view.
+     */
+    public List<JsonObject> appendNewer(JsonArray activities)
+    {
+        List<JsonObject> added = unseen(activities);
+        for (JsonObject activity : added)
+        {
+            entries.addLast(activity);
+        }
+
+        // Evict from the old end; those can be paged back in later
+        while (entries.size() > capacity)
+        {
+            keys.remove(keyOf(entries.removeFirst()));
+            hasOlder = true;
+        }
+        return added;
+    }
+
+    /**
+     * Add an older page. Returns the entries that fit, oldest first, in the order
+     * they should be prepended to the view.
+     */
+    public List<JsonObject> prependOlder(JsonArray activities, int requestedPageSize)
+    {
+        List<JsonObject> added = unseen(activities);
+        if (activities.size() < requestedPageSize)
+        {
+            hasOlder = false;
+        }
+
+        int room = capacity - entries.size();
+        if (added.size() > room)
+        {
+            // Keep the newest part of the page adjacent to what is already held
+            for (JsonObject dropped : added.subList(0, added.size() - room))
+            {
+                keys.remove(keyOf(dropped));
+            }
+            added = new ArrayList<>(added.subList(added.size() - room, added.size()));
+            hasOlder = true;
+        }
+
+        for (int i = added.size() - 1; i >= 0; i--)
+        {
+            entries.addFirst(added.get(i));
+        }
+        return added;
+    }
+
+    public String getBingoId()
+    {
+        return bingoId;
+    }
+
+    /**
+     * Timestamp of the newest entry held, or 0 when empty
+     */
+    public long getNewestTimestamp()
+    {
+        return entries.isEmpty() ? 0 : timestampOf(entries.peekLast());
+    }
+
+    /**
+     * Timestamp of the oldest entry held, or 0 when empty
+     */
+    public long getOldestTimestamp()
+    {
+        return entries.isEmpty() ? 0 : timestampOf(entries.peekFirst());
+    }
+
+    /**
+     * Whether older entries may exist on the server that are not held here
+     */
+    public boolean hasOlder()
+    {
+        return hasOlder && capacity > entries.size();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return entries.isEmpty();
+    }
+
+    private List<JsonObject> unseen(JsonArray activities)
+    {
+        List<JsonObject> added = new ArrayList<>();
+        for (JsonElement element : activities)
+        {
+            if (element.isJsonObject() && keys.add(keyOf(element.getAsJsonObject())))
+            {
+                added.add(element.getAsJsonObject());
+            }
+        }
+        added.sort(BY_TIMESTAMP);
+        return added;
+    }
+
+    private static String keyOf(JsonObject activity)
+    {
+        if (activity.has("id") && !activity.get("id").isJsonNull())
+        {
+            return activity.get("id").getAsString();
+        }
+        return field(activity, "playerRsn") + '|' + field(activity, "activityType") + '|' + field(activity, "timestamp")
+            + '|' + field(activity, "monsterName") + '|' + field(activity, "dropName");
+    }
+
+    private static String field(JsonObject activity, String name)
+    {
+        return activity.has(name) && !activity.get(name).isJsonNull() ? activity.get(name).getAsString() : "";
+    }
+
+    private static long timestampOf(JsonObject activity)
+    {
+        try
+        {
+            return activity.has("timestamp") ? activity.get("timestamp").getAsLong() : 0;
+        }
+        catch (NumberFormatException | UnsupportedOperationException | IllegalStateException e)
+        {
+            return 0;
+        }
+    }
+}
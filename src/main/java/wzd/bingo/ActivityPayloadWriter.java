@@ -0,0 +1,167 @@
+package wzd.bingo;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams activity batch payloads into buffers that are reused between
+ * batches, instead of building a Gson tree and copying it into a String.
+ * JSON is written into a growable char buffer and encoded to UTF-8 once per
+ * batch. One writer per thread; the bytes are only valid until the next write.
+ */
+public class ActivityPayloadWriter
+{
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final CharSink chars = new CharSink();
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Write a batch payload, replacing whatever the buffers held before
+     */
+    public void writeBatch(BingoSession.Snapshot session, List<PendingActivity> activities, KillCountTracker killCounts)
+        throws IOException
+    {
+        chars.reset();
+
+        JsonWriter json = new JsonWriter(chars);
+        json.beginObject();
+        json.name("rsn").value(session.getRsn());
+        json.name("teamId").value(session.getTeamId());
+        json.name("activities").beginArray();
+        for (PendingActivity activity : activities)
+        {
+            json.beginObject();
+            json.name("activityType").value(activity.getActivityType());
+            json.name("monsterName").value(activity.getMonsterName());
+            // killCount is the delta since the last batch; totalKc is the game's own total when chat reported one
+            int totalKc = killCounts.get(activity.getEventId(), activity.getMonsterName());
+            json.name("killCount").value(activity.getCount());
+            json.name("totalKc").value(totalKc != KillCountTracker.UNKNOWN ? totalKc : activity.getCount());
+            json.name("timestamp").value(activity.getCreatedAt() / 1000);
+            json.name("idempotencyKeys").beginArray();
+            for (String key : activity.getIdempotencyKeys())
+            {
+                json.value(key);
+            }
+            json.endArray();
+            if (activity.getDropName() != null)
+            {
+                json.name("dropName").value(activity.getDropName());
+            }
+            if (activity.getScreenshotUrl() != null)
+            {
+                json.name("screenshotUrl").value(activity.getScreenshotUrl());
+            }
+            if (activity.getDurationSeconds() > 0)
+            {
+                json.name("durationSeconds").value(activity.getDurationSeconds());
+            }
+            if (activity.getTeamSize() > 0)
+            {
+                json.name("teamSize").value(activity.getTeamSize());
+            }
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+
+        encode();
+    }
+
+    public byte[] array()
+    {
+        return bytes.array();
+    }
+
+    public int size()
+    {
+        return bytes.position();
+    }
+
+    private void encode() throws IOException
+    {
+        // Worst case UTF-8 size, so a single pass always fits
+        int required = chars.size * 3;
+        if (bytes.capacity() < required)
+        {
+            bytes = ByteBuffer.allocate(required);
+        }
+        bytes.clear();
+
+        encoder.reset();
+        CharBuffer input = CharBuffer.wrap(chars.data, 0, chars.size);
+        CoderResult result = encoder.encode(input, bytes, true);
+        if (result.isError())
+        {
+            result.throwException();
+        }
+        encoder.flush(bytes);
+    }
+
+    /**
+     * Append-only char sink that keeps its array between batches
+     */
+    private static class CharSink extends Writer
+    {
+        private char[] data = new char[INITIAL_CAPACITY];
+        private int size;
+
+        void reset()
+        {
+            size = 0;
+        }
+
+        @Override
+        public void write(char[] source, int offset, int length)
+        {
+            ensureCapacity(size + length);
+            System.arraycopy(source, offset, data, size, length);
+            size += length;
+        }
+
+        @Override
+        public void write(String source, int offset, int length)
+        {
+            ensureCapacity(size + length);
+            source.getChars(offset, offset + length, data, size);
+            size += length;
+        }
+
+        @Override
+        public void write(int c)
+        {
+            ensureCapacity(size + 1);
+            data[size++] = (char) c;
+        }
+
+        @Override
+        public void flush()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        private void ensureCapacity(int capacity)
+        {
+            if (capacity > data.length)
+            {
+                data = Arrays.copyOf(data, Math.max(data.length << 1, capacity));
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package wzd.bingo;
+
+/**
+ * Submission queue lanes, highest first. The lane decides how long an activity
+ * may be held for batching and what is stretched or shed when the pipeline
+ * backs up.
+ */
+public enum ActivityPriority
+{
+    CRITICAL,
+    BOSS,
+    BULK;
+
+    /**
+     * Lane for a submitted activity type. Unknown types are treated as critical
+     * so nothing new is ever degraded by default.
+     */
+    public static ActivityPriority forActivityType(String activityType)
+    {
+        if ("KILL".equals(activityType))
+        {
+            return BULK;
+        }
+        if ("BOSS_KILL".equals(activityType))
+        {
+            return BOSS;
+        }
+        return CRITICAL;
+    }
+}
@@ -0,0 +1,593 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only write-ahead spool for activities that have not yet been
+ * acknowledged by the API. Lives next to the screenshots in
+ * ~/.runelite/bingo/&lt;eventId&gt;/activity.spool.
+ *
+ * Each line is an append record ("A", id, json), an acknowledgement record
+ * ("K", comma separated ids) or a replay record ("R", comma separated ids)
+ * written each time a record is picked up again by a later session. Callers
+ * only enqueue lines in memory; a periodic writer on the plugin io pool
+ * appends them and fsyncs once per drain, so the client thread never waits
+ * on disk.
+ *
+ * Records the server refuses outright, or that have been replayed too many
+ * times, are moved to activity.rejected next to the spool instead of being
+ * replayed forever.
+ */
+@Slf4j
+@Singleton
+public class ActivitySpool
+{
+    private static final String SPOOL_FILE = "activity.spool";
+    private static final String RECORD_APPEND = "A";
+    private static final String RECORD_ACK = "K";
+    private static final String RECORD_REPLAY = "R";
+    private static final String REJECTED_FILE = "activity.rejected";
+    static final int MAX_REPLAYS = 5;
+    private static final long WRITE_INTERVAL_MS = 250;
+    private static final long COMPACT_INTERVAL_SECONDS = 60;
+
+    @Inject
+    private BingoExecutors executors;
+
+    @Inject
+    private IdempotencyKeys idempotencyKeys;
+
+    private final Gson gson = new Gson();
+    private final AtomicLong nextId = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    // Lines waiting to be written, tagged with their event
+    private final Queue<SpoolLine> writeQueue = new ConcurrentLinkedQueue<>();
+
+    // Ids handed out (or replayed) this session that are neither acked nor failed
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Only touched while holding this spool's monitor
+    private final Map<String, FileChannel> channels = new HashMap<>();
+    private final Map<String, Integer> ackedSinceCompaction = new HashMap<>();
+
+    private final Object lifecycleLock = new Object();
+    private ScheduledFuture<?> writerTask;
+    private ScheduledFuture<?> compactionTask;
+
+    // Set once shut down; later writes are refused rather than queued and lost
+    private volatile boolean closed;
+
+    /**
+     * Start the writer and periodic compaction on the shared io pool
+     */
+    public void start()
+    {
+        synchronized (lifecycleLock)
+        {
+            if (writerTask == null)
+            {
+                closed = false;
+                writerTask = executors.scheduleIo(this::drain, WRITE_INTERVAL_MS, WRITE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                compactionTask = executors.scheduleIo(this::compactAll, COMPACT_INTERVAL_SECONDS, COMPACT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+                log.info("Started activity spool");
+            }
+        }
+    }
+
+    /**
+     * Write out anything still queued and close all spool files. Call once nothing
+     * that appends or acknowledges is still running.
+     */
+    public void shutdown()
+    {
+        synchronized (lifecycleLock)
+        {
+            closed = true;
+            if (writerTask != null)
+            {
+                writerTask.cancel(false);
+                compactionTask.cancel(false);
+                writerTask = null;
+                compactionTask = null;
+            }
+        }
+
+        synchronized (this)
+        {
+            drain();
+            closeChannels();
+        }
+        inFlight.clear();
+        log.info("Activity spool shutdown complete");
+    }
+
+    /**
+     * Record an activity before it is sent. Returns the spool id used to
+     * acknowledge it later.
+     */
+    public long append(PendingActivity activity)
+    {
+        long id = nextId.getAndIncrement();
+        if (closed)
+        {
+            log.warn("Activity spool closed - {} for {} was not persisted", activity.getActivityType(), activity.getMonsterName());
+            return id;
+        }
+
+        inFlight.add(id);
+        writeQueue.add(new SpoolLine(activity.getEventId(), RECORD_APPEND + "\t" + id + "\t" + gson.toJson(toRecord(activity))));
+        return id;
+    }
+
+    private JsonObject toRecord(PendingActivity activity)
+    {
+        JsonObject record = new JsonObject();
+        record.addProperty("activityType", activity.getActivityType());
+        record.addProperty("monsterName", activity.getMonsterName());
+        record.addProperty("dropName", activity.getDropName());
+        record.addProperty("screenshotUrl", activity.getScreenshotUrl());
+        record.addProperty("createdAt", activity.getCreatedAt());
+        if (!activity.getIdempotencyKeys().isEmpty())
+        {
+            record.addProperty("key", activity.getIdempotencyKeys().get(0));
+        }
+        if (activity.getDurationSeconds() > 0 || activity.getTeamSize() > 0)
+        {
+            record.addProperty("durationSeconds", activity.getDurationSeconds());
+            record.addProperty("teamSize", activity.getTeamSize());
+        }
+        return record;
+    }
+
+    /**
+     * Mark the given spool entries as accepted by the API
+     */
+    public void acknowledge(String eventId, Collection<Long> ids)
+    {
+        if (ids.isEmpty())
+        {
+            return;
+        }
+
+        inFlight.removeAll(ids);
+        if (closed)
+        {
+            // Left unacknowledged on disk; the idempotency keys stop the replay counting twice
+            log.warn("Activity spool closed - acknowledgement of {} entries for event {} not written", ids.size(), eventId);
+            return;
+        }
+        writeQueue.add(new SpoolLine(eventId, RECORD_ACK + "\t" + joinIds(ids)));
+    }
+
+    /**
+     * Move activities the server refused outright to the event's rejected file,
+     * tagged with the reason, and acknowledge them so they are not replayed again
+     */
+    public void reject(String eventId, Collection<PendingActivity> activities, String reason)
+    {
+        if (closed)
+        {
+            log.warn("Activity spool closed - {} rejected activities for event {} not moved", activities.size(), eventId);
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (PendingActivity activity : activities)
+        {
+            ids.addAll(activity.getSpoolIds());
+            writeQueue.add(SpoolLine.rejected(eventId,
+                reason + "\t" + joinIds(activity.getSpoolIds()) + "\t" + gson.toJson(toRecord(activity))));
+        }
+        log.warn("Server rejected {} activities for event {} ({}) - moved to {}", activities.size(), eventId, reason, REJECTED_FILE);
+        acknowledge(eventId, ids);
+    }
+
+    /**
+     * Release entries whose submission failed so they are picked up by the next replay
+     */
+    public void release(Collection<Long> ids)
+    {
+        inFlight.removeAll(ids);
+    }
+
+    /**
+     * Read every event spool and return the activities that were never acknowledged,
+     * skipping anything already queued or in flight this session.
+     */
+    public List<PendingActivity> recover()
+    {
+        List<PendingActivity> recovered = new ArrayList<>();
+        Path bingoDir = getBingoDirectory();
+        if (!Files.isDirectory(bingoDir))
+        {
+            return recovered;
+        }
+
+        // Make sure queued acknowledgements are on disk before reading back
+        flushNow();
+
+        try (DirectoryStream<Path> eventDirs = Files.newDirectoryStream(bingoDir, Files::isDirectory))
+        {
+            for (Path eventDir : eventDirs)
+            {
+                String eventId = eventDir.getFileName().toString();
+                Path spoolFile = eventDir.resolve(SPOOL_FILE);
+                if (!Files.exists(spoolFile))
+                {
+                    continue;
+                }
+
+                List<Long> replayed = new ArrayList<>();
+                List<Long> exhausted = new ArrayList<>();
+                for (Map.Entry<Long, SpoolRecord> entry : readUnacknowledged(spoolFile).entrySet())
+                {
+                    long id = entry.getKey();
+                    SpoolRecord spooled = entry.getValue();
+                    if (inFlight.contains(id))
+                    {
+                        continue;
+                    }
+
+                    if (spooled.replays >= MAX_REPLAYS)
+                    {
+                        writeQueue.add(SpoolLine.rejected(eventId, "replayed " + spooled.replays + " times\t" + id + "\t" + spooled.json));
+                        exhausted.add(id);
+                        continue;
+                    }
+
+                    inFlight.add(id);
+                    try
+                    {
+                        JsonObject record = gson.fromJson(spooled.json, JsonObject.class);
+                        String key = getString(record, "key");
+                        PendingActivity activity = new PendingActivity(
+                            eventId,
+                            getString(record, "activityType"),
+                            getString(record, "monsterName"),
+                            getString(record, "dropName"),
+                            getString(record, "screenshotUrl"),
+                            key != null ? key : idempotencyKeys.forLegacySpoolRecord(eventId, id),
+                            record.has("createdAt") ? record.get("createdAt").getAsLong() : System.currentTimeMillis()
+                        );
+                        activity.addSpoolId(id);
+                        if (record.has("durationSeconds") || record.has("teamSize"))
+                        {
+                            activity.setRaidDetails(
+                                record.has("durationSeconds") ? record.get("durationSeconds").getAsInt() : 0,
+                                record.has("teamSize") ? record.get("teamSize").getAsInt() : 0);
+                        }
+                        recovered.add(activity);
+                        replayed.add(id);
+                    }
+                    catch (Exception e)
+                    {
+                        inFlight.remove(id);
+                        log.warn("Skipping unreadable spool record {} in {}", id, spoolFile);
+                    }
+                }
+
+                if (!replayed.isEmpty())
+                {
+                    writeQueue.add(new SpoolLine(eventId, RECORD_REPLAY + "\t" + joinIds(replayed)));
+                }
+                if (!exhausted.isEmpty())
+                {
+                    log.warn("Gave up on {} activities for event {} after {} replays - moved to {}",
+                        exhausted.size(), eventId, MAX_REPLAYS, REJECTED_FILE);
+                    writeQueue.add(new SpoolLine(eventId, RECORD_ACK + "\t" + joinIds(exhausted)));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to read activity spool directory", e);
+        }
+
+        if (!recovered.isEmpty())
+        {
+            log.info("Recovered {} unsent activities from spool", recovered.size());
+        }
+        return recovered;
+    }
+
+    private void flushNow()
+    {
+        // drain() is synchronized, so this also waits for a drain already running on the io pool
+        drain();
+    }
+
+    /**
+     * Append everything queued so far and fsync each touched file once
+     */
+    private synchronized void drain()
+    {
+        if (writeQueue.isEmpty())
+        {
+            return;
+        }
+
+        Map<String, StringBuilder> perEvent = new LinkedHashMap<>();
+        Map<String, StringBuilder> rejectedPerEvent = new LinkedHashMap<>();
+        SpoolLine line;
+        while ((line = writeQueue.poll()) != null)
+        {
+            Map<String, StringBuilder> target = line.rejected ? rejectedPerEvent : perEvent;
+            target.computeIfAbsent(line.eventId, k -> new StringBuilder()).append(line.text).append('\n');
+            if (!line.rejected && line.text.startsWith(RECORD_ACK))
+            {
+                ackedSinceCompaction.merge(line.eventId, 1, Integer::sum);
+            }
+        }
+
+        for (Map.Entry<String, StringBuilder> entry : perEvent.entrySet())
+        {
+            try
+            {
+                FileChannel channel = getChannel(entry.getKey());
+                ByteBuffer buffer = ByteBuffer.wrap(entry.getValue().toString().getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            catch (IOException e)
+            {
+                log.error("Failed to write activity spool for event {}", entry.getKey(), e);
+            }
+        }
+
+        // Rare, so opened per drain rather than kept open like the spool
+        for (Map.Entry<String, StringBuilder> entry : rejectedPerEvent.entrySet())
+        {
+            try
+            {
+                Path rejectedFile = getBingoDirectory().resolve(entry.getKey()).resolve(REJECTED_FILE);
+                Files.createDirectories(rejectedFile.getParent());
+                Files.write(rejectedFile, entry.getValue().toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            catch (IOException e)
+            {
+                log.error("Failed to write rejected activities for event {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Rewrite spool files so they only contain unacknowledged appends
+     */
+    synchronized void compactAll()
+    {
+        drain();
+
+        for (String eventId : new ArrayList<>(ackedSinceCompaction.keySet()))
+        {
+            Path spoolFile = getSpoolFile(eventId);
+            try
+            {
+                closeChannel(eventId);
+
+                Map<Long, SpoolRecord> remaining = readUnacknowledged(spoolFile);
+                if (remaining.isEmpty())
+                {
+                    Files.deleteIfExists(spoolFile);
+                }
+                else
+                {
+                    Path tempFile = spoolFile.resolveSibling(SPOOL_FILE + ".tmp");
+                    try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8))
+                    {
+                        int maxReplays = 0;
+                        for (Map.Entry<Long, SpoolRecord> entry : remaining.entrySet())
+                        {
+                            writer.write(RECORD_APPEND + "\t" + entry.getKey() + "\t" + entry.getValue().json + "\n");
+                            maxReplays = Math.max(maxReplays, entry.getValue().replays);
+                        }
+
+                        // Replay line n lists every record replayed at least n times
+                        for (int n = 1; n <= maxReplays; n++)
+                        {
+                            List<Long> ids = new ArrayList<>();
+                            for (Map.Entry<Long, SpoolRecord> entry : remaining.entrySet())
+                            {
+                                if (entry.getValue().replays >= n)
+                                {
+                                    ids.add(entry.getKey());
+                                }
+                            }
+                            writer.write(RECORD_REPLAY + "\t" + joinIds(ids) + "\n");
+                        }
+                    }
+                    Files.move(tempFile, spoolFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+
+                ackedSinceCompaction.remove(eventId);
+                log.debug("Compacted activity spool for event {} ({} entries remaining)", eventId, remaining.size());
+            }
+            catch (IOException e)
+            {
+                log.error("Failed to compact activity spool for event {}", eventId, e);
+            }
+        }
+    }
+
+    private Map<Long, SpoolRecord> readUnacknowledged(Path spoolFile)
+    {
+        Map<Long, SpoolRecord> appended = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                // A torn final line from a crash is simply ignored
+                String[] parts = line.split("\t", 3);
+                try
+                {
+                    if (parts.length == 3 && RECORD_APPEND.equals(parts[0]))
+                    {
+                        appended.put(Long.parseLong(parts[1]), new SpoolRecord(parts[2]));
+                    }
+                    else if (parts.length == 2 && RECORD_REPLAY.equals(parts[0]))
+                    {
+                        for (String id : parts[1].split(","))
+                        {
+                            SpoolRecord record = appended.get(Long.parseLong(id));
+                            if (record != null)
+                            {
+                                record.replays++;
+                            }
+                        }
+                    }
+                    else if (parts.length == 2 && RECORD_ACK.equals(parts[0]))
+                    {
+                        for (String id : parts[1].split(","))
+                        {
+                            appended.remove(Long.parseLong(id));
+                        }
+                    }
+                }
+                catch (NumberFormatException e)
+                {
+                    log.debug("Ignoring malformed spool line in {}", spoolFile);
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to read activity spool {}", spoolFile, e);
+        }
+        return appended;
+    }
+
+    private FileChannel getChannel(String eventId) throws IOException
+    {
+        FileChannel channel = channels.get(eventId);
+        if (channel == null || !channel.isOpen())
+        {
+            Path spoolFile = getSpoolFile(eventId);
+            Files.createDirectories(spoolFile.getParent());
+            channel = FileChannel.open(spoolFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channels.put(eventId, channel);
+        }
+        return channel;
+    }
+
+    private void closeChannel(String eventId)
+    {
+        FileChannel channel = channels.remove(eventId);
+        if (channel != null)
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                log.debug("Failed to close spool channel for event {}", eventId);
+            }
+        }
+    }
+
+    private void closeChannels()
+    {
+        for (String eventId : new ArrayList<>(channels.keySet()))
+        {
+            closeChannel(eventId);
+        }
+    }
+
+    private Path getBingoDirectory()
+    {
+        return Paths.get(System.getProperty("user.home"), ".runelite", "bingo");
+    }
+
+    private Path getSpoolFile(String eventId)
+    {
+        return getBingoDirectory().resolve(eventId).resolve(SPOOL_FILE);
+    }
+
+    private static String joinIds(Collection<Long> ids)
+    {
+        StringBuilder joined = new StringBuilder();
+        for (long id : ids)
+        {
+            if (joined.length() > 0)
+            {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        return joined.toString();
+    }
+
+    private static String getString(JsonObject obj, String key)
+    {
+        return obj.has(key) && !obj.get(key).isJsonNull() ? obj.get(key).getAsString() : null;
+    }
+
+    private static class SpoolLine
+    {
+        private final String eventId;
+        private final String text;
+        private final boolean rejected;
+
+        SpoolLine(String eventId, String text)
+        {
+            this(eventId, text, false);
+        }
+
+        private SpoolLine(String eventId, String text, boolean rejected)
+        {
+            this.eventId = eventId;
+            this.text = text;
+            this.rejected = rejected;
+        }
+
+        static SpoolLine rejected(String eventId, String text)
+        {
+            return new SpoolLine(eventId, text, true);
+        }
+    }
+
+    private static class SpoolRecord
+    {
+        private final String json;
+        private int replays;
+
+        SpoolRecord(String json)
+        {
+            this.json = json;
+        }
+    }
+}
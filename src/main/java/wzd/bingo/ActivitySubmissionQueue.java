@@ -0,0 +1,546 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects activities over a short window and submits them as a single batched
+ * payload per event. Repeated KILL/BOSS_KILL entries for the same monster are
+ * folded into one record carrying a kill count.
+ *
+ * Activities are held in priority lanes. Drops and raid completions flush
+ * almost immediately in their own batch; boss and mob kills wait for the
+ * configured window. While several flushes are already queued or running, the
+ * lower lanes are held longer instead of being sent, so their kills fold into
+ * fewer records and the io pool stays free for critical work.
+ *
+ * Batches that fail with a network error, throttling or a server error are
+ * re-queued with jittered exponential backoff, and are held while the batch
+ * endpoint's circuit is open. A batch rejected with 401 starts a token renewal
+ * and is re-queued once the new token is in place.
+ */
+@Slf4j
+@Singleton
+public class ActivitySubmissionQueue
+{
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final MediaType MEDIA_TYPE_JSON = MediaType.get(CONTENT_TYPE_JSON);
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final long CRITICAL_WINDOW_MS = 100;
+    private static final int BACKLOG_FLUSHES = 2;
+    private static final int BOSS_BACKLOG_STRETCH = 2;
+    private static final int BULK_BACKLOG_STRETCH = 4;
+    private static final long RENEWAL_WAIT_SECONDS = 30;
+    private static final long CIRCUIT_RECHECK_MS = 1_000;
+    private static final RetryPolicy BATCH_RETRY = new RetryPolicy(5, 1_000, 5 * 60_000);
+
+    @Inject
+    private BingoConfig config;
+
+    @Inject
+    private OkHttpClient httpClient;
+
+    @Inject
+    private ActivitySpool spool;
+
+    @Inject
+    private BingoExecutors executors;
+
+    @Inject
+    private BingoSession session;
+
+    @Inject
+    private CircuitBreakers breakers;
+
+    @Inject
+    private BingoApiClient apiClient;
+
+    @Inject
+    private IdempotencyKeys idempotencyKeys;
+
+    @Inject
+    private KillCountTracker killCounts;
+
+    // Flushes run on the io pool, so each worker thread streams into its own buffer
+    private final ThreadLocal<ActivityPayloadWriter> payloadWriter = ThreadLocal.withInitial(ActivityPayloadWriter::new);
+
+    private final Object lock = new Object();
+
+    // One insertion ordered map per lane so each batch preserves the order activities happened in
+    private final Map<ActivityPriority, Map<String, PendingActivity>> pending = new EnumMap<>(ActivityPriority.class);
+    private final Set<ActivityPriority> scheduledLanes = EnumSet.noneOf(ActivityPriority.class);
+    private long uniqueSequence = 0;
+
+    // Flushes handed to the io pool that have not finished yet
+    private final AtomicInteger flushesInFlight = new AtomicInteger();
+
+    private boolean running = false;
+
+    {
+        for (ActivityPriority lane : ActivityPriority.values())
+        {
+            pending.put(lane, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Queue an activity for the next batch. Safe to call from the client thread;
+     * the activity is handed to the spool writer and no network or disk work
+     * happens here. The idempotency key identifies this one activity for the
+     * server across batching, retries and replay.
+     * @param occurredAt When the activity happened in epoch milliseconds, e.g. the NPC's death rather than its loot
+     */
+    public void enqueue(String eventId, String activityType, String monsterName, String dropName, String screenshotUrl,
+        long occurredAt, String idempotencyKey)
+    {
+        if (eventId == null)
+        {
+            return;
+        }
+
+        PendingActivity activity = new PendingActivity(eventId, activityType, monsterName, dropName, screenshotUrl,
+            idempotencyKey, occurredAt);
+        activity.addSpoolId(spool.append(activity));
+        add(activity);
+    }
+
+    /**
+     * Queue a raid completion with its run time and party size (zero when unknown)
+     */
+    public void enqueueRaidCompletion(String eventId, String raidName, int durationSeconds, int teamSize,
+        String idempotencyKey)
+    {
+        if (eventId == null)
+        {
+            return;
+        }
+
+        PendingActivity activity = new PendingActivity(eventId, "RAID_COMPLETION", raidName, null, null, idempotencyKey);
+        activity.setRaidDetails(durationSeconds, teamSize);
+        activity.addSpoolId(spool.append(activity));
+        add(activity);
+    }
+
+    /**
+     * Re-queue activities left unacknowledged in the spool by a previous session or failed batch
+     */
+    public void replaySpool()
+    {
+        for (PendingActivity activity : spool.recover())
+        {
+            add(activity);
+        }
+    }
+
+    private void add(PendingActivity activity)
+    {
+        if (isAlreadyAccepted(activity))
+        {
+            // Accepted before but the acknowledgement never reached the spool
+            log.debug("Skipping {} for {} - already accepted by the server", activity.getActivityType(), activity.getMonsterName());
+            spool.acknowledge(activity.getEventId(), activity.getSpoolIds());
+            return;
+        }
+
+        synchronized (lock)
+        {
+            ActivityPriority lane = activity.getPriority();
+            Map<String, PendingActivity> queue = pending.get(lane);
+
+            if (activity.isCoalescable())
+            {
+                PendingActivity existing = queue.get(activity.getCoalesceKey());
+                if (existing != null)
+                {
+                    existing.merge(activity);
+                    log.debug("Coalesced {} for {} (x{})", activity.getActivityType(), activity.getMonsterName(), existing.getCount());
+                }
+                else
+                {
+                    queue.put(activity.getCoalesceKey(), activity);
+                }
+            }
+            else
+            {
+                // Drops and raid completions are never folded together
+                queue.put(activity.getCoalesceKey() + "#" + uniqueSequence++, activity);
+            }
+
+            if (queue.size() >= MAX_BATCH_SIZE)
+            {
+                scheduleFlush(lane, 0);
+            }
+            else
+            {
+                scheduleFlush(lane, getWindowMs(lane));
+            }
+        }
+    }
+
+    private boolean isAlreadyAccepted(PendingActivity activity)
+    {
+        if (activity.getIdempotencyKeys().isEmpty())
+        {
+            return false;
+        }
+
+        for (String key : activity.getIdempotencyKeys())
+        {
+            if (!idempotencyKeys.isAccepted(key))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether enough flushes are queued or running that low priority work should back off.
+     * Heartbeats are skipped while this holds.
+     */
+    public boolean isBacklogged()
+    {
+        return flushesInFlight.get() >= BACKLOG_FLUSHES;
+    }
+
+    private long getWindowMs(ActivityPriority lane)
+    {
+        long window = config.activityBatchWindowMs();
+        switch (lane)
+        {
+            case CRITICAL:
+                return CRITICAL_WINDOW_MS;
+            case BOSS:
+                return isBacklogged() ? window * BOSS_BACKLOG_STRETCH : window;
+            default:
+                return isBacklogged() ? window * BULK_BACKLOG_STRETCH : window;
+        }
+    }
+
+    /**
+     * Start accepting activities. Flushes run on the shared plugin executors.
+     */
+    public void start()
+    {
+        synchronized (lock)
+        {
+            if (!running)
+            {
+                spool.start();
+                running = true;
+                scheduledLanes.clear();
+                log.info("Started activity submission queue ({}ms batch window)", config.activityBatchWindowMs());
+            }
+        }
+    }
+
+    /**
+     * Stop scheduling flushes and hand anything still pending to the io pool as one
+     * last flush. Never blocks the caller, which is usually the EDT: the executor
+     * shutdown that follows waits a bounded time for that flush, and whatever it
+     * does not finish stays in the spool for the next startup to replay.
+     * The spool is left open for flushes and retries still running on the io pool;
+     * the plugin closes it once the executors have drained.
+     */
+    public void shutdown()
+    {
+        synchronized (lock)
+        {
+            running = false;
+            scheduledLanes.clear();
+        }
+
+        try
+        {
+            // The lowest lane drains every lane above it too
+            executors.io().execute(() -> flush(ActivityPriority.BULK));
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.warn("Could not hand off final activity flush - pending activities stay in the spool");
+        }
+        log.info("Activity submission queue shutdown complete");
+    }
+
+    private void scheduleFlush(ActivityPriority lane, long delayMs)
+    {
+        if (!running || (delayMs > 0 && scheduledLanes.contains(lane)))
+        {
+            return;
+        }
+
+        try
+        {
+            executors.scheduler().schedule(() -> submitFlush(lane), Math.max(0, delayMs), TimeUnit.MILLISECONDS);
+            scheduledLanes.add(lane);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.warn("Could not schedule activity flush - executors shut down");
+        }
+    }
+
+    private void submitFlush(ActivityPriority lane)
+    {
+        if (lane != ActivityPriority.CRITICAL && isBacklogged())
+        {
+            // Shed load: keep folding kills until the earlier flushes drain
+            synchronized (lock)
+            {
+                scheduledLanes.remove(lane);
+                scheduleFlush(lane, getWindowMs(lane));
+            }
+            log.debug("Deferred {} flush - {} flushes in flight", lane, flushesInFlight.get());
+            return;
+        }
+
+        flushesInFlight.incrementAndGet();
+        try
+        {
+            executors.io().execute(() -> {
+                try
+                {
+                    flush(lane);
+                }
+                finally
+                {
+                    flushesInFlight.decrementAndGet();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            flushesInFlight.decrementAndGet();
+
+            // Still in the spool; retry once the io pool has room
+            synchronized (lock)
+            {
+                scheduledLanes.remove(lane);
+                scheduleFlush(lane, getWindowMs(lane));
+            }
+        }
+    }
+
+    /**
+     * Drain the given lane, plus any higher priority lane, and submit one batch per event
+     * with the higher priority entries first
+     */
+    private void flush(ActivityPriority lane)
+    {
+        Map<String, List<PendingActivity>> batches = new LinkedHashMap<>();
+
+        synchronized (lock)
+        {
+            scheduledLanes.remove(lane);
+            for (Map.Entry<ActivityPriority, Map<String, PendingActivity>> entry : pending.entrySet())
+            {
+                if (entry.getKey().compareTo(lane) > 0)
+                {
+                    break;
+                }
+
+                for (PendingActivity activity : entry.getValue().values())
+                {
+                    batches.computeIfAbsent(activity.getEventId(), k -> new ArrayList<>()).add(activity);
+                }
+                entry.getValue().clear();
+            }
+        }
+
+        for (Map.Entry<String, List<PendingActivity>> batch : batches.entrySet())
+        {
+            submitBatch(batch.getKey(), batch.getValue());
+        }
+    }
+
+    private void submitBatch(String eventId, List<PendingActivity> activities)
+    {
+        List<Long> spoolIds = new ArrayList<>();
+        for (PendingActivity activity : activities)
+        {
+            spoolIds.addAll(activity.getSpoolIds());
+        }
+
+        // Hold the batch while the token is renewed rather than sending it to be rejected
+        if (!session.awaitReady(RENEWAL_WAIT_SECONDS, TimeUnit.SECONDS))
+        {
+            log.warn("JWT renewal still in progress - leaving batch for event {} in the spool", eventId);
+            spool.release(spoolIds);
+            return;
+        }
+
+        BingoSession.Snapshot current = session.get();
+        if (!current.hasTeam())
+        {
+            log.warn("Cannot submit activity batch for event {} - no valid team id", eventId);
+            spool.release(spoolIds);
+            return;
+        }
+
+        String path = "/api/bingo/activity/" + eventId + "/batch";
+        CircuitBreaker breaker = breakers.forRequest("POST", path);
+        if (!breaker.allowRequest())
+        {
+            log.debug("Circuit open for {} - holding batch for event {}", breaker.getEndpoint(), eventId);
+            retryLater(activities, spoolIds, Math.max(CIRCUIT_RECHECK_MS, breaker.getRemainingOpenMs()));
+            return;
+        }
+
+        try
+        {
+            sendBatch(current, path, activities);
+            breaker.recordSuccess();
+
+            // An accepted batch doubles as a heartbeat
+            session.markServerContact();
+            log.info("Successfully submitted batch of {} activities for event {}", activities.size(), eventId);
+            spool.acknowledge(eventId, spoolIds);
+            for (PendingActivity activity : activities)
+            {
+                idempotencyKeys.markAccepted(activity.getIdempotencyKeys());
+            }
+        }
+        catch (BingoApiException e)
+        {
+            if (e.isRetryable())
+            {
+                breaker.recordFailure();
+                scheduleRetry(eventId, activities, spoolIds, e.getRetryAfterMs());
+            }
+            else if (e.isUnauthorized())
+            {
+                // The endpoint answered; only the token was stale
+                breaker.recordSuccess();
+                retryAfterRenewal(current, eventId, activities, spoolIds);
+            }
+            else
+            {
+                // Rejected outright; replaying the same batch would only be rejected again
+                breaker.recordSuccess();
+                spool.reject(eventId, activities, "HTTP " + e.getStatusCode());
+            }
+        }
+        catch (IOException e)
+        {
+            log.warn("Error submitting activity batch for event {}: {}", eventId, e.getMessage());
+            breaker.recordFailure();
+            scheduleRetry(eventId, activities, spoolIds, RetryPolicy.NO_RETRY_AFTER);
+        }
+        catch (Exception e)
+        {
+            // Nothing reached the server, so this says nothing about the endpoint. Left in
+            // the spool, which stops replaying a record that keeps failing after a few sessions.
+            breaker.releaseProbe();
+            log.error("Failed to create activity batch for event {}", eventId, e);
+            spool.release(spoolIds);
+        }
+    }
+
+    private void sendBatch(BingoSession.Snapshot current, String path, List<PendingActivity> activities) throws IOException
+    {
+        ActivityPayloadWriter writer = payloadWriter.get();
+        writer.writeBatch(current, activities, killCounts);
+
+        // Wraps the writer's buffer without copying; it is not reused until this call returns
+        RequestBody body = RequestBody.create(MEDIA_TYPE_JSON, writer.array(), 0, writer.size());
+
+        Request request = new Request.Builder()
+            .url(current.getAuthApiUrl() + path)
+            .post(body)
+            .addHeader("Authorization", current.getAuthorizationHeader())
+            .addHeader("Content-Type", CONTENT_TYPE_JSON)
+            .build();
+
+        try (Response response = httpClient.newCall(request).execute())
+        {
+            if (!response.isSuccessful())
+            {
+                log.warn("Failed to submit activity batch: HTTP {}", response.code());
+                if (response.body() != null)
+                {
+                    log.warn("Error response: {}", response.body().string());
+                }
+                throw new BingoApiException(response.code(), "HTTP " + response.code() + " from " + path,
+                    RetryPolicy.parseRetryAfter(response.header("Retry-After")));
+            }
+        }
+    }
+
+    /**
+     * Renew the token and resend once the new one is in place. Without a renewal, or
+     * if it did not produce a new token, the batch stays in the spool for the next login.
+     */
+    private void retryAfterRenewal(BingoSession.Snapshot rejected, String eventId, List<PendingActivity> activities,
+        List<Long> spoolIds)
+    {
+        if (!apiClient.reportUnauthorized())
+        {
+            log.warn("Activity batch for event {} rejected with 401 and no renewal possible - left in the spool", eventId);
+            spool.release(spoolIds);
+            return;
+        }
+
+        session.whenReady().thenRun(() -> {
+            String token = session.get().getJwtToken();
+            if (token == null || token.isEmpty() || token.equals(rejected.getJwtToken()))
+            {
+                log.warn("JWT renewal failed - leaving activity batch for event {} in the spool", eventId);
+                spool.release(spoolIds);
+                return;
+            }
+            scheduleRetry(eventId, activities, spoolIds, RetryPolicy.NO_RETRY_AFTER);
+        });
+    }
+
+    /**
+     * Back off and re-queue a batch the server may still accept, or give up on it
+     * once the retry budget is spent
+     */
+    private void scheduleRetry(String eventId, List<PendingActivity> activities, List<Long> spoolIds, long retryAfterMs)
+    {
+        int attempts = 0;
+        for (PendingActivity activity : activities)
+        {
+            attempts = Math.max(attempts, activity.recordAttempt());
+        }
+
+        long delay = BATCH_RETRY.canRetry(attempts) ? BATCH_RETRY.delayMs(attempts, retryAfterMs) : -1;
+        if (delay < 0)
+        {
+            log.warn("Giving up on activity batch for event {} after {} attempts - left in the spool", eventId, attempts);
+            spool.release(spoolIds);
+            return;
+        }
+
+        log.info("Retrying activity batch for event {} in {}ms (attempt {}/{})", eventId, delay, attempts + 1,
+            BATCH_RETRY.getMaxAttempts());
+        retryLater(activities, spoolIds, delay);
+    }
+
+    private void retryLater(List<PendingActivity> activities, List<Long> spoolIds, long delayMs)
+    {
+        try
+        {
+            // Spool ids stay in flight meanwhile, so a replay cannot submit them twice
+            executors.scheduler().schedule(() -> activities.forEach(this::add), delayMs, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            spool.release(spoolIds);
+        }
+    }
+}
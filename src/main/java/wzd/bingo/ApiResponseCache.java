@@ -0,0 +1,119 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decoded API responses keyed by API URL, path and account, with the
+ * validators needed to send conditional requests. A 304 reuses the decoded value without re-reading or
+ * re-parsing the body, and callers can render the last value straight away
+ * while a revalidation is in flight.
+ */
+@Slf4j
+@Singleton
+public class ApiResponseCache
+{
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public Entry get(String key)
+    {
+        return entries.get(key);
+    }
+
+    /**
+     * Last decoded value for a key, however old, for stale-while-revalidate rendering
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T peek(String key)
+    {
+        Entry entry = entries.get(key);
+        return entry != null ? (T) entry.value : null;
+    }
+
+    public void put(String key, String etag, String lastModified, Object value)
+    {
+        if (etag == null && lastModified == null)
+        {
+            // Without validators the entry could never be revalidated, but it still serves stale renders
+            log.debug("No cache validators for {}", key);
+        }
+        entries.put(key, new Entry(etag, lastModified, value));
+    }
+
+    /**
+     * Count a response served from cache after a 304
+     */
+    public void recordHit(String key)
+    {
+        long total = hits.incrementAndGet() + misses.get();
+        log.debug("Cache hit for {} (hit rate {}% over {} requests)", key, Math.round(getHitRate() * 100), total);
+    }
+
+    /**
+     * Count a response that had to be downloaded and decoded
+     */
+    public void recordMiss(String key)
+    {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Fraction of conditional-capable requests answered with 304
+     */
+    public double getHitRate()
+    {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Drop every entry, e.g. when the account changes. Statistics are logged and reset.
+     */
+    public void clear()
+    {
+        long hitCount = hits.getAndSet(0);
+        long missCount = misses.getAndSet(0);
+        if (hitCount + missCount > 0)
+        {
+            log.info("API response cache: {} hits, {} misses ({}% hit rate)", hitCount, missCount,
+                Math.round(100.0 * hitCount / (hitCount + missCount)));
+        }
+        entries.clear();
+    }
+
+    public static class Entry
+    {
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+
+        Entry(String etag, String lastModified, Object value)
+        {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+
+        public String getEtag()
+        {
+            return etag;
+        }
+
+        public String getLastModified()
+        {
+            return lastModified;
+        }
+
+        public Object getValue()
+        {
+            return value;
+        }
+    }
+}
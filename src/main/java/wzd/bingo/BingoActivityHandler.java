@@ -3,28 +3,21 @@ package wzd.bingo;
 import com.google.gson.JsonObject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.*;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
-import net.runelite.client.util.ImageCapture;
-import net.runelite.client.util.ImageUtil;
 import net.runelite.client.events.NpcLootReceived;
 import net.runelite.client.game.ItemStack;
 import okhttp3.*;
 
-import javax.imageio.ImageIO;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Base64;
-import java.util.HashSet;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -35,8 +28,12 @@ public class BingoActivityHandler
     
     private String imgurClientId = null;
     
-    // Track recent kills to avoid duplicates
-    private final Set<String> recentKills = new HashSet<>();
+    private static final int RECENT_DEATH_CAPACITY = 64;
+    private static final int RECENT_DEATH_WINDOW_TICKS = 50; // 30 seconds
+    private static final long GAME_TICK_MS = 600;
+    
+    // Recent NPC deaths, used to attribute loot and drop duplicate loot events
+    private final RecentDeathBuffer recentDeaths = new RecentDeathBuffer(RECENT_DEATH_CAPACITY, RECENT_DEATH_WINDOW_TICKS);
     
     @Inject
     private Client client;
@@ -51,10 +48,40 @@ public class BingoActivityHandler
     private ConfigManager configManager;
     
     @Inject
-    private ImageCapture imageCapture;
+    private OkHttpClient httpClient;
     
     @Inject
-    private OkHttpClient httpClient;
+    private ActivitySubmissionQueue submissionQueue;
+    
+    @Inject
+    private BingoExecutors executors;
+    
+    @Inject
+    private ScreenshotEncoder screenshotEncoder;
+    
+    @Inject
+    private ScreenshotCapture screenshotCapture;
+
+    @Inject
+    private LootClassifier lootClassifier;
+
+    @Inject
+    private TileRuleIndex tileRuleIndex;
+
+    @Inject
+    private ItemValuationCache valuationCache;
+
+    @Inject
+    private IdempotencyKeys idempotencyKeys;
+
+    @Inject
+    private BingoSession session;
+
+    @Inject
+    private KillCountTracker killCountTracker;
+
+    @Inject
+    private RaidCompletionTracker raidCompletionTracker;
     
     private boolean isParticipating = false;
     private String currentEventId = null;
@@ -65,6 +92,9 @@ public class BingoActivityHandler
         this.currentEventId = eventId;
         log.info("Activity tracking set to: {} for event: {}", participating, eventId);
         
+        // Kill counts are kept per event, so switching saves the old totals and loads the new ones
+        killCountTracker.setEvent(participating ? eventId : null);
+        
         // Initialize Imgur client ID if needed
         if (participating && imgurClientId == null)
         {
@@ -74,24 +104,17 @@ public class BingoActivityHandler
     
     private void initializeImgurClientId()
     {
-        new Thread(() -> {
-            try
+        bingoService.getImgurClientId().thenAccept(clientId -> {
+            imgurClientId = clientId;
+            if (imgurClientId != null)
             {
-                imgurClientId = bingoService.getImgurClientId();
-                if (imgurClientId != null)
-                {
-                    log.info("Successfully initialized Imgur client ID for screenshot uploads");
-                }
-                else
-                {
-                    log.warn("Failed to retrieve Imgur client ID - screenshot uploads will be disabled");
-                }
+                log.info("Successfully initialized Imgur client ID for screenshot uploads");
             }
-            catch (Exception e)
+            else
             {
-                log.error("Error initializing Imgur client ID", e);
+                log.warn("Failed to retrieve Imgur client ID - screenshot uploads will be disabled");
             }
-        }).start();
+        });
     }
     
     @Subscribe
@@ -105,30 +128,79 @@ public class BingoActivityHandler
         String npcName = npc.getName();
         if (npcName == null) return;
         
-        // Handle boss/raid completions
-        if (isRaidCompletion(npcName))
+        int npcId = npc.getId();
+        int tick = client.getTickCount();
+        
+        // Loot appears a few ticks after the kill; attribute it to the death when one was tracked
+        int killTick = tick;
+        WorldPoint location = npc.getWorldLocation();
+        if (location != null)
+        {
+            int deathTick = recentDeaths.claim(npc.getIndex(), npcId, location.getX(), location.getY(),
+                location.getPlane(), tick);
+            if (deathTick == RecentDeathBuffer.ALREADY_CLAIMED)
+            {
+                log.debug("Ignoring duplicate loot for {} (index {})", npcName, npc.getIndex());
+                return;
+            }
+            if (deathTick != RecentDeathBuffer.NO_MATCH)
+            {
+                killTick = deathTick;
+            }
+        }
+        long killedAt = System.currentTimeMillis() - (tick - killTick) * GAME_TICK_MS;
+        
+        // Handle boss kills, skipping kills that cannot advance a tile on our board. Raid room
+        // bosses are not kills in their own right; the raid completion comes from chat.
+        if (lootClassifier.isRaidBoss(npcId, npcName))
         {
-            handleRaidCompletion(npcName);
+            log.debug("Raid room loot from {} - waiting for the completion message", npcName);
         }
-        else if (isBoss(npcName))
+        else if (lootClassifier.isBoss(npcId, npcName))
         {
-            handleBossKill(npcName);
+            if (tileRuleIndex.matchesKill("BOSS_KILL", npcId))
+            {
+                handleBossKill(npcName, killedAt, activityKey("BOSS_KILL", npcId, killTick));
+            }
         }
-        else
+        else if (tileRuleIndex.matchesKill("KILL", npcId))
         {
-            handleMobKill(npcName);
+            handleMobKill(npcName, killedAt, activityKey("KILL", npcId, killTick));
         }
         
-        // Check for valuable drops
+        // Check for drops named by a tile, or valuable drops when the board counts any drop
+        boolean acceptsAnyDrop = tileRuleIndex.acceptsAnyDrop();
         for (ItemStack item : npcLootReceived.getItems())
         {
-            if (isValuableDrop(item))
+            boolean tileItem = tileRuleIndex.matchesItem(item.getId());
+            if (!tileItem && !acceptsAnyDrop)
             {
-                handleValuableDrop(npcName, item);
+                continue;
+            }
+
+            ItemValuationCache.ItemValuation valuation = valuationCache.get(item.getId());
+            if (valuation != null && (tileItem || valuationCache.isValuable(valuation, item.getQuantity())))
+            {
+                handleValuableDrop(npcName, valuation.getName(), item, killedAt, activityKey("DROP", npcId, killTick));
             }
         }
     }
     
+    @Subscribe
+    public void onChatMessage(ChatMessage chatMessage)
+    {
+        if (!isParticipating || currentEventId == null || chatMessage.getType() != ChatMessageType.GAMEMESSAGE) return;
+        
+        String message = chatMessage.getMessage();
+        killCountTracker.onGameMessage(message);
+        
+        RaidCompletionTracker.RaidCompletion completion = raidCompletionTracker.onGameMessage(message, client.getTickCount());
+        if (completion != null)
+        {
+            handleRaidCompletion(completion);
+        }
+    }
+    
     @Subscribe
     public void onActorDeath(ActorDeath actorDeath)
     {
@@ -138,104 +210,112 @@ public class BingoActivityHandler
         if (!(actor instanceof NPC)) return;
         
         NPC npc = (NPC) actor;
-        String npcName = npc.getName();
-        if (npcName == null) return;
+        WorldPoint location = npc.getWorldLocation();
+        if (location == null) return;
         
         // Track the kill for later loot processing
-        String killKey = npcName + "_" + System.currentTimeMillis();
-        recentKills.add(killKey);
+        recentDeaths.record(npc.getIndex(), npc.getId(), location.getX(), location.getY(),
+            location.getPlane(), client.getTickCount());
         
-        log.debug("Tracked death: {}", npcName);
+        log.debug("Tracked death: {} (index {})", npc.getName(), npc.getIndex());
+    }
+    
+    /**
+     * Key generated when the activity is seen, so every later resend of it carries the same one
+     */
+    private String activityKey(String activityType, int npcId, int tick)
+    {
+        return idempotencyKeys.forActivity(currentEventId, session.get().getRsn(), activityType, npcId, tick);
     }
     
-    private void handleRaidCompletion(String raidName)
+    private void handleRaidCompletion(RaidCompletionTracker.RaidCompletion completion)
     {
-        log.info("Raid completion detected: {}", raidName);
+        log.info("Raid completion detected: {}", completion);
         
-        // Submit raid completion (KC tracking only)
-        submitActivity("RAID_COMPLETION", raidName, null, null);
+        // Exactly one submission per run: the key is derived from the game's completion count
+        String idempotencyKey = idempotencyKeys.forRaidCompletion(currentEventId, session.get().getRsn(),
+            completion.getRaidName(), completion.getCompletionCount());
+        submissionQueue.enqueueRaidCompletion(currentEventId, completion.getRaidName(),
+            completion.getDurationSeconds(), completion.getTeamSize(), idempotencyKey);
     }
     
-    private void handleBossKill(String bossName)
+    private void handleBossKill(String bossName, long killedAt, String idempotencyKey)
     {
         log.info("Boss kill detected: {}", bossName);
         
         // Submit boss kill (KC tracking only)
-        submitActivity("BOSS_KILL", bossName, null, null);
+        submitActivity(currentEventId, "BOSS_KILL", bossName, null, null, killedAt, idempotencyKey);
     }
     
-    private void handleMobKill(String mobName)
+    private void handleMobKill(String mobName, long killedAt, String idempotencyKey)
     {
         log.debug("Mob kill detected: {}", mobName);
         
         // Submit regular kill (KC tracking only)
-        submitActivity("KILL", mobName, null, null);
+        submitActivity(currentEventId, "KILL", mobName, null, null, killedAt, idempotencyKey);
     }
     
-    private void handleValuableDrop(String npcName, ItemStack item)
+    private void handleValuableDrop(String npcName, String itemName, ItemStack item, long killedAt, String idempotencyKey)
     {
-        String itemName = client.getItemDefinition(item.getId()).getName();
         log.info("Valuable drop detected: {} from {} (x{})", itemName, npcName, item.getQuantity());
         
-        // Take screenshot and upload
-        CompletableFuture.supplyAsync(() -> {
+        // The drop belongs to the event tracked when it happened, even if that changes before the upload finishes
+        String eventId = currentEventId;
+        
+        // Copy the next rendered frame, encode it once on the cpu pool, then save and upload
+        // the same bytes on the io pool
+        ScreenshotProfile profile = ScreenshotProfile.fromConfig(config);
+        Rectangle region = screenshotCapture.cropRegion(profile.getCrop());
+        screenshotCapture.captureNextFrame(region).thenApplyAsync(frame -> {
             try
             {
-                // Get client's canvas for screenshot
-                BufferedImage screenshot = new BufferedImage(
-                    client.getCanvasWidth(),
-                    client.getCanvasHeight(),
-                    BufferedImage.TYPE_INT_RGB
-                );
-                
-                // Create graphics and draw the canvas
-                java.awt.Graphics2D g2d = screenshot.createGraphics();
-                client.getCanvas().paint(g2d);
-                g2d.dispose();
-                
-                if (screenshot != null)
-                {
-                    // Save locally first
-                    String localPath = saveScreenshotLocally(screenshot, itemName);
-                    
-                    // Upload to imgur
-                    String imgurUrl = uploadToImgur(screenshot);
-                    
-                    // Submit drop activity with screenshot
-                    submitActivity("DROP", npcName, itemName, imgurUrl);
-                    
-                    return imgurUrl;
-                }
+                return screenshotEncoder.encode(frame, profile);
             }
-            catch (Exception e)
+            catch (IOException e)
+            {
+                throw new java.io.UncheckedIOException(e);
+            }
+            finally
+            {
+                screenshotCapture.release(frame);
+            }
+        }, executors.cpu()).thenApplyAsync(screenshot -> {
+            // Save locally first, then upload to imgur streaming from the saved file when there is one
+            String localPath = saveScreenshotLocally(eventId, screenshot, itemName);
+            return uploadToImgur(screenshot, localPath);
+        }, executors.io()).handle((imgurUrl, e) -> {
+            if (e != null)
             {
                 log.error("Failed to handle screenshot for drop: {}", itemName, e);
-                // Submit drop without screenshot
-                submitActivity("DROP", npcName, itemName, null);
             }
+            
+            // Submitted exactly once, without a screenshot if capture, encoding or upload failed
+            submitActivity(eventId, "DROP", npcName, itemName, e == null ? imgurUrl : null, killedAt, idempotencyKey);
             return null;
         });
     }
     
-    private String saveScreenshotLocally(BufferedImage screenshot, String itemName)
+    private String saveScreenshotLocally(String eventId, EncodedScreenshot screenshot, String itemName)
     {
         try
         {
             // Create directory structure: .runelite/bingo/event_id/
-            Path bingoDir = Paths.get(System.getProperty("user.home"), ".runelite", "bingo", currentEventId);
+            Path bingoDir = Paths.get(System.getProperty("user.home"), ".runelite", "bingo", eventId);
             Files.createDirectories(bingoDir);
             
             // Create filename with timestamp
-            String filename = String.format("%s_%s_%d.png", 
+            String filename = String.format("%s_%s_%d.%s", 
                 itemName.replaceAll("[^a-zA-Z0-9]", "_"),
                 config.rsn().replaceAll("[^a-zA-Z0-9]", "_"),
-                System.currentTimeMillis());
+                System.currentTimeMillis(),
+                screenshot.getExtension());
             
-            File file = bingoDir.resolve(filename).toFile();
-            ImageIO.write(screenshot, "png", file);
+            // Write the already-encoded bytes rather than encoding again
+            Path file = bingoDir.resolve(filename);
+            Files.write(file, screenshot.getData());
             
-            log.info("Screenshot saved locally: {}", file.getAbsolutePath());
-            return file.getAbsolutePath();
+            log.info("Screenshot saved locally: {}", file.toAbsolutePath());
+            return file.toAbsolutePath().toString();
         }
         catch (IOException e)
         {
@@ -244,7 +324,7 @@ public class BingoActivityHandler
         }
     }
     
-    private String uploadToImgur(BufferedImage screenshot)
+    private String uploadToImgur(EncodedScreenshot screenshot, String localPath)
     {
         // Check if we have a valid client ID
         if (imgurClientId == null || imgurClientId.isEmpty())
@@ -255,15 +335,14 @@ public class BingoActivityHandler
         
         try
         {
-            // Convert image to base64
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(screenshot, "png", baos);
-            String base64Image = Base64.getEncoder().encodeToString(baos.toByteArray());
-            
-            // Create form data
-            RequestBody formBody = new FormBody.Builder()
-                .add("image", base64Image)
-                .add("type", "base64")
+            // Send the image as a binary part instead of a base64 form field
+            RequestBody imageBody = localPath != null
+                ? RequestBody.create(MediaType.get(screenshot.getMimeType()), new java.io.File(localPath))
+                : screenshot.toRequestBody();
+            RequestBody formBody = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("image", "screenshot." + screenshot.getExtension(), imageBody)
+                .addFormDataPart("type", "file")
                 .build();
             
             Request request = new Request.Builder()
@@ -296,152 +375,11 @@ public class BingoActivityHandler
         return null;
     }
     
-    private void submitActivity(String activityType, String monsterName, String dropName, String screenshotUrl)
-    {
-        try
-        {
-            JsonObject activityData = new JsonObject();
-            activityData.addProperty("rsn", config.rsn());
-            activityData.addProperty("activityType", activityType);
-            activityData.addProperty("monsterName", monsterName);
-            activityData.addProperty("killCount", 1); // Each submission represents 1 kill
-            activityData.addProperty("totalKc", 1); // This will be calculated on backend
-            activityData.addProperty("teamId", Integer.parseInt(config.teamId())); // Add team ID
-            
-            if (dropName != null)
-            {
-                activityData.addProperty("dropName", dropName);
-            }
-            if (screenshotUrl != null)
-            {
-                activityData.addProperty("screenshotUrl", screenshotUrl);
-            }
-            
-            String apiEndpoint = config.authApiUrl() + "/api/bingo/activity/" + currentEventId;
-            
-            RequestBody body = RequestBody.create(
-                MediaType.get("application/json"),
-                activityData.toString()
-            );
-            
-            Request request = new Request.Builder()
-                .url(apiEndpoint)
-                .post(body)
-                .addHeader("Authorization", "Bearer " + config.jwtToken())
-                .addHeader("Content-Type", "application/json")
-                .build();
-            
-            CompletableFuture.supplyAsync(() -> {
-                try (Response response = httpClient.newCall(request).execute())
-                {
-                    if (response.isSuccessful())
-                    {
-                        log.info("Successfully submitted {} activity for {}", activityType, monsterName);
-                        return true;
-                    }
-                    else
-                    {
-                        log.warn("Failed to submit activity: HTTP {}", response.code());
-                        if (response.body() != null)
-                        {
-                            try
-                            {
-                                String errorBody = response.body().string();
-                                log.warn("Error response: {}", errorBody);
-                            }
-                            catch (IOException ex)
-                            {
-                                log.warn("Could not read error response body");
-                            }
-                        }
-                        return false;
-                    }
-                }
-                catch (IOException e)
-                {
-                    log.error("Error submitting activity", e);
-                    return false;
-                }
-            });
-        }
-        catch (Exception e)
-        {
-            log.error("Failed to create activity submission", e);
-        }
-    }
-    
-    private boolean isRaidCompletion(String npcName)
-    {
-        return npcName.contains("Maiden of Sugadinti") ||  // ToB
-               npcName.contains("Xarpus") ||
-               npcName.contains("Verzik Vitur") ||
-               npcName.contains("Great Olm") ||              // CoX
-               npcName.contains("Warden") ||                 // ToA
-               npcName.contains("Tumeken");
-    }
-    
-    private boolean isBoss(String npcName)
-    {
-        return npcName.equals("King Black Dragon") ||
-               npcName.equals("Corporeal Beast") ||
-               npcName.equals("Commander Zilyana") ||
-               npcName.equals("General Graardor") ||
-               npcName.equals("Kree'arra") ||
-               npcName.equals("K'ril Tsutsaroth") ||
-               npcName.equals("Kalphite Queen") ||
-               npcName.equals("Chaos Elemental") ||
-               npcName.equals("Zulrah") ||
-               npcName.equals("Vorkath") ||
-               npcName.equals("Alchemical Hydra") ||
-               npcName.equals("The Nightmare") ||
-               npcName.equals("Phosani's Nightmare") ||
-               npcName.equals("Cerberus") ||
-               npcName.equals("Abyssal Sire") ||
-               npcName.equals("Kraken") ||
-               npcName.equals("Thermonuclear Smoke Devil") ||
-               npcName.contains("Dagannoth");
-    }
-    
-    private boolean isValuableDrop(ItemStack item)
-    {
-        ItemComposition itemDef = client.getItemDefinition(item.getId());
-        if (itemDef == null) return false;
-        
-        // Check if item is valuable (you can adjust these criteria)
-        int value = itemDef.getPrice() * item.getQuantity();
-        
-        // Consider items worth more than 1M gp as valuable
-        return value > 1000000 || 
-               isRareItem(itemDef.getName()) ||
-               isPetDrop(itemDef.getName());
-    }
-    
-    private boolean isRareItem(String itemName)
-    {
-        return itemName.contains("Dragon warhammer") ||
-               itemName.contains("Twisted bow") ||
-               itemName.contains("Scythe") ||
-               itemName.contains("Rapier") ||
-               itemName.contains("Avernic") ||
-               itemName.contains("Primordial") ||
-               itemName.contains("Eternal") ||
-               itemName.contains("Pegasian") ||
-               itemName.contains("Armadyl") ||
-               itemName.contains("Bandos") ||
-               itemName.contains("Zamorak") ||
-               itemName.contains("Saradomin") ||
-               itemName.contains("Elysian") ||
-               itemName.contains("Spectral") ||
-               itemName.contains("Arcane");
-    }
-    
-    private boolean isPetDrop(String itemName)
+    private void submitActivity(String eventId, String activityType, String monsterName, String dropName,
+        String screenshotUrl, long occurredAt, String idempotencyKey)
     {
-        return itemName.toLowerCase().contains("pet") ||
-               itemName.toLowerCase().contains("puppy") ||
-               itemName.toLowerCase().contains("kitten") ||
-               itemName.toLowerCase().contains("heron") ||
-               itemName.toLowerCase().contains("beaver") ||
-               itemName.toLowerCase().contains("squirrel");
+        // Batched and coalesced by the submission queue rather than posted one by one
+        submissionQueue.enqueue(eventId, activityType, monsterName, dropName, screenshotUrl, occurredAt,
+            idempotencyKey);
     }
-} 
\ No newline at end of file
+}
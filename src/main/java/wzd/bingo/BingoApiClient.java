@@ -0,0 +1,394 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking client for the bingo API. Requests are dispatched with OkHttp's
+ * enqueue, so no plugin thread waits on the network. Status handling, HTML
+ * error page detection and JSON parsing are shared by every endpoint; callers
+ * only supply a decoder for the parsed body.
+ *
+ * Concurrent GETs for the same URL and token share one call: later callers
+ * join the request already in flight and receive the same decoded result.
+ *
+ * Network failures, throttling and server errors are retried with jittered
+ * exponential backoff, and each endpoint sits behind a {@link CircuitBreaker}
+ * so an outage fails fast instead of stacking up requests.
+ */
+@Slf4j
+@Singleton
+public class BingoApiClient
+{
+    private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final int MAX_LOGGED_BODY = 200;
+    private static final RetryPolicy READ_RETRY = new RetryPolicy(3, 500, 10_000);
+
+    @Inject
+    private OkHttpClient httpClient;
+
+    @Inject
+    private BingoSession session;
+
+    @Inject
+    private ApiResponseCache cache;
+
+    @Inject
+    private CircuitBreakers breakers;
+
+    @Inject
+    private BingoExecutors executors;
+
+    private final Gson gson = new Gson();
+
+    // GETs currently on the wire, keyed by URL and Authorization header
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile BooleanSupplier unauthorizedHandler;
+
+    /**
+     * Decodes a parsed JSON response body into a typed result
+     */
+    public interface Decoder<T>
+    {
+        T decode(JsonElement body) throws Exception;
+    }
+
+    private interface ResponseReader<T>
+    {
+        T read(Response response) throws Exception;
+    }
+
+    /**
+     * Called whenever a request is rejected with 401. Returns whether a token
+     * renewal is now in progress.
+     */
+    public void setUnauthorizedHandler(BooleanSupplier handler)
+    {
+        this.unauthorizedHandler = handler;
+    }
+
+    /**
+     * Report a 401 received on a request sent outside this client, such as an
+     * activity batch, so the token is renewed the same way
+     * @return true if a renewal is in progress, so waiting on the session gate is worthwhile
+     */
+    public boolean reportUnauthorized()
+    {
+        BooleanSupplier handler = unauthorizedHandler;
+        return handler != null && handler.getAsBoolean();
+    }
+
+    /**
+     * GET a path under the configured API URL and parse the body as JSON
+     */
+    public CompletableFuture<JsonElement> get(String path)
+    {
+        return get(path, body -> body);
+    }
+
+    /**
+     * GET a path under the configured API URL and decode the JSON body. Waits for any
+     * token renewal in progress before sending. The future
+     * completes exceptionally with a {@link BingoApiException} for unusable responses
+     * or an IOException for network failures.
+     */
+    public <T> CompletableFuture<T> get(String path, Decoder<T> decoder)
+    {
+        // Held while the token is being renewed, then sent with the new one
+        return session.whenReady().thenCompose(ready -> {
+            BingoSession.Snapshot current = session.get();
+            Request request = new Request.Builder()
+                .url(current.getAuthApiUrl() + path)
+                .get()
+                .addHeader("Authorization", current.getAuthorizationHeader())
+                .addHeader("Accept", CONTENT_TYPE_JSON)
+                .build();
+
+            return singleFlight(flightKey(current, path), path, () -> execute(request, decoder));
+        });
+    }
+
+    /**
+     * GET a path with a conditional request when it has been fetched before. A 304
+     * completes with the previously decoded value without touching the body.
+     */
+    public <T> CompletableFuture<T> getCached(String path, Decoder<T> decoder)
+    {
+        return session.whenReady().thenCompose(ready -> {
+            BingoSession.Snapshot current = session.get();
+            return singleFlight(flightKey(current, path), path, () -> sendConditional(current, path, decoder));
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> sendConditional(BingoSession.Snapshot current, String path, Decoder<T> decoder)
+    {
+        Request.Builder builder = new Request.Builder()
+            .url(current.getAuthApiUrl() + path)
+            .get()
+            .addHeader("Authorization", current.getAuthorizationHeader())
+            .addHeader("Accept", CONTENT_TYPE_JSON);
+
+        String cacheKey = cacheKey(current, path);
+        ApiResponseCache.Entry cached = cache.get(cacheKey);
+        if (cached != null)
+        {
+            if (cached.getEtag() != null)
+            {
+                builder.addHeader("If-None-Match", cached.getEtag());
+            }
+            if (cached.getLastModified() != null)
+            {
+                builder.addHeader("If-Modified-Since", cached.getLastModified());
+            }
+        }
+
+        return send(builder.build(), response -> {
+            if (response.code() == 304 && cached != null)
+            {
+                cache.recordHit(cacheKey);
+                return (T) cached.getValue();
+            }
+
+            T value = decoder.decode(readJson(path, response));
+            cache.recordMiss(cacheKey);
+            cache.put(cacheKey, response.header("ETag"), response.header("Last-Modified"), value);
+            return value;
+        });
+    }
+
+    /**
+     * Last decoded value for a path fetched by the current account, for rendering
+     * while a fresh request is in flight
+     */
+    public <T> T peekCached(String path)
+    {
+        return cache.peek(cacheKey(session.get(), path));
+    }
+
+    /**
+     * Drop cached responses, e.g. on logout or a rejected token
+     */
+    public void clearCache()
+    {
+        cache.clear();
+    }
+
+    /**
+     * Send a prepared request and decode its JSON body
+     */
+    public <T> CompletableFuture<T> execute(Request request, Decoder<T> decoder)
+    {
+        String path = request.url().encodedPath();
+        return send(request, response -> decoder.decode(readJson(path, response)));
+    }
+
+    /**
+     * Send through the endpoint's circuit breaker, retrying failures the server may recover from
+     */
+    private <T> CompletableFuture<T> send(Request request, ResponseReader<T> reader)
+    {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        String path = request.url().encodedPath();
+        attempt(request, path, breakers.forRequest(request.method(), path), reader, 1, future);
+        return future;
+    }
+
+    private <T> void attempt(Request request, String path, CircuitBreaker breaker, ResponseReader<T> reader,
+        int attemptNumber, CompletableFuture<T> future)
+    {
+        if (!breaker.allowRequest())
+        {
+            future.completeExceptionally(new BingoApiException(BingoApiException.NO_STATUS,
+                "Circuit open for " + breaker.getEndpoint()));
+            return;
+        }
+
+        httpClient.newCall(request).enqueue(new Callback()
+        {
+            @Override
+            public void onFailure(Call call, IOException e)
+            {
+                log.warn("Request to {} failed: {}", path, e.getMessage());
+                breaker.recordFailure();
+                retryOrFail(request, path, breaker, reader, attemptNumber, future, e, RetryPolicy.NO_RETRY_AFTER);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response)
+            {
+                try (Response r = response)
+                {
+                    T value = reader.read(r);
+                    breaker.recordSuccess();
+                    future.complete(value);
+                }
+                catch (BingoApiException e)
+                {
+                    if (e.isRetryable())
+                    {
+                        breaker.recordFailure();
+                        retryOrFail(request, path, breaker, reader, attemptNumber, future, e, e.getRetryAfterMs());
+                    }
+                    else
+                    {
+                        // The server answered, so the endpoint itself is healthy
+                        breaker.recordSuccess();
+                        future.completeExceptionally(e);
+                    }
+                }
+                catch (Exception e)
+                {
+                    // Settle the breaker either way, or a probe that fails here leaves it half-open for good.
+                    // A 2xx that could not be decoded still shows the endpoint is up.
+                    if (response.isSuccessful())
+                    {
+                        breaker.recordSuccess();
+                    }
+                    else
+                    {
+                        breaker.recordFailure();
+                    }
+                    future.completeExceptionally(e);
+                }
+            }
+        });
+    }
+
+    private <T> void retryOrFail(Request request, String path, CircuitBreaker breaker, ResponseReader<T> reader,
+        int attemptNumber, CompletableFuture<T> future, Exception failure, long retryAfterMs)
+    {
+        long delay = READ_RETRY.canRetry(attemptNumber) ? READ_RETRY.delayMs(attemptNumber, retryAfterMs) : -1;
+        if (delay < 0)
+        {
+            future.completeExceptionally(failure);
+            return;
+        }
+
+        log.debug("Retrying {} in {}ms (attempt {}/{})", path, delay, attemptNumber + 1, READ_RETRY.getMaxAttempts());
+        try
+        {
+            executors.scheduler().schedule(() -> attempt(request, path, breaker, reader, attemptNumber + 1, future),
+                delay, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            future.completeExceptionally(failure);
+        }
+    }
+
+    /**
+     * Start a call unless an identical one is already in flight, in which case join it.
+     * Callers for the same path are expected to decode it the same way.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> singleFlight(String key, String path, Supplier<CompletableFuture<T>> call)
+    {
+        CompletableFuture<T> leader = new CompletableFuture<>();
+        CompletableFuture<?> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null)
+        {
+            log.debug("Joined in-flight request to {}", path);
+            // A dependent stage so one caller cannot complete the shared future for the others
+            return ((CompletableFuture<T>) existing).thenApply(value -> value);
+        }
+
+        call.get().whenComplete((value, error) -> {
+            // Removed before completing so callers arriving afterwards start a fresh request
+            inFlight.remove(key, leader);
+            if (error != null)
+            {
+                leader.completeExceptionally(unwrap(error));
+            }
+            else
+            {
+                leader.complete(value);
+            }
+        });
+        return leader.thenApply(value -> value);
+    }
+
+    /**
+     * Cached responses belong to the account that fetched them. The token is left
+     * out so entries survive a renewal for the same player and team.
+     */
+    private static String cacheKey(BingoSession.Snapshot current, String path)
+    {
+        return current.getAuthApiUrl() + path + "|" + current.getRsn() + "|" + current.getTeamId();
+    }
+
+    private static String flightKey(BingoSession.Snapshot current, String path)
+    {
+        return current.getAuthApiUrl() + path + "|" + current.getAuthorizationHeader();
+    }
+
+    /**
+     * Unwrap the CompletionException layer added by dependent futures
+     */
+    public static Throwable unwrap(Throwable throwable)
+    {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+    }
+
+    private JsonElement readJson(String path, Response response) throws IOException
+    {
+        ResponseBody body = response.body();
+        if (response.code() == 401)
+        {
+            log.warn("JWT token rejected by {}", path);
+            reportUnauthorized();
+            throw new BingoApiException(401, "Unauthorized");
+        }
+
+        if (!response.isSuccessful())
+        {
+            String preview = body != null ? preview(body.string()) : "";
+            log.warn("Request to {} failed: HTTP {} - {} {}", path, response.code(), response.message(), preview);
+            throw new BingoApiException(response.code(), "HTTP " + response.code() + " from " + path,
+                RetryPolicy.parseRetryAfter(response.header("Retry-After")));
+        }
+
+        String text = body != null ? body.string() : null;
+        if (text == null || text.trim().isEmpty())
+        {
+            throw new BingoApiException(BingoApiException.NO_STATUS, "Empty response from " + path);
+        }
+
+        // Misrouted requests come back as the site's HTML error page
+        String trimmed = text.trim();
+        if (trimmed.startsWith("<!") || trimmed.startsWith("<html"))
+        {
+            log.warn("{} returned HTML instead of JSON: {}", path, preview(trimmed));
+            throw new BingoApiException(BingoApiException.NO_STATUS, "HTML response from " + path);
+        }
+
+        JsonElement element = gson.fromJson(trimmed, JsonElement.class);
+        if (element == null)
+        {
+            throw new BingoApiException(BingoApiException.NO_STATUS, "Unparseable response from " + path);
+        }
+        return element;
+    }
+
+    private static String preview(String text)
+    {
+        return text.length() > MAX_LOGGED_BODY ? text.substring(0, MAX_LOGGED_BODY) + "..." : text;
+    }
+}
@@ -0,0 +1,56 @@
+package wzd.bingo;
+
+import java.io.IOException;
+
+/**
+ * A bingo API call that completed but could not be used: an error status,
+ * an empty body, or an HTML error page instead of JSON.
+ */
+public class BingoApiException extends IOException
+{
+    public static final int NO_STATUS = -1;
+
+    private final int statusCode;
+    private final long retryAfterMs;
+
+    public BingoApiException(int statusCode, String message)
+    {
+        this(statusCode, message, RetryPolicy.NO_RETRY_AFTER);
+    }
+
+    public BingoApiException(int statusCode, String message, long retryAfterMs)
+    {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMs = retryAfterMs;
+    }
+
+    /**
+     * HTTP status of the response, or {@link #NO_STATUS} if the status was fine but the body was not
+     */
+    public int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    public boolean isUnauthorized()
+    {
+        return statusCode == 401;
+    }
+
+    /**
+     * Whether the server may accept the same request later (throttling, timeouts, 5xx)
+     */
+    public boolean isRetryable()
+    {
+        return statusCode != NO_STATUS && RetryPolicy.isRetryableStatus(statusCode);
+    }
+
+    /**
+     * Delay the server asked for via Retry-After, or {@link RetryPolicy#NO_RETRY_AFTER}
+     */
+    public long getRetryAfterMs()
+    {
+        return retryAfterMs;
+    }
+}
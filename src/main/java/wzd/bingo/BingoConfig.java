@@ -3,6 +3,8 @@ package wzd.bingo;
 import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
 @ConfigGroup("bingo")
 public interface BingoConfig extends Config
@@ -82,4 +84,82 @@ public interface BingoConfig extends Config
     default boolean isAuthenticated() {
         return false;
     }
-} 
\ No newline at end of file
+
+    @Range(
+        min = 250,
+        max = 60000
+    )
+    @Units(Units.MILLISECONDS)
+    @ConfigItem(
+        keyName = "activityBatchWindowMs",
+        name = "Activity Batch Window",
+        description = "How long activities are collected before being submitted as a single batch"
+    )
+    default int activityBatchWindowMs() {
+        return 5000;
+    }
+
+    @ConfigItem(
+        keyName = "screenshotFormat",
+        name = "Screenshot Format",
+        description = "Image format for drop screenshots. JPEG is much smaller and faster to upload"
+    )
+    default ScreenshotFormat screenshotFormat() {
+        return ScreenshotFormat.JPEG;
+    }
+
+    @Range(
+        min = 1,
+        max = 100
+    )
+    @Units(Units.PERCENT)
+    @ConfigItem(
+        keyName = "screenshotQuality",
+        name = "Screenshot Quality",
+        description = "Compression quality for JPEG screenshots"
+    )
+    default int screenshotQuality() {
+        return 85;
+    }
+
+    @Range(
+        min = 0,
+        max = 4096
+    )
+    @Units(Units.PIXELS)
+    @ConfigItem(
+        keyName = "screenshotMaxDimension",
+        name = "Screenshot Max Size",
+        description = "Downscale screenshots so their longest edge is at most this many pixels (0 to disable)"
+    )
+    default int screenshotMaxDimension() {
+        return 1280;
+    }
+
+    @ConfigItem(
+        keyName = "screenshotCrop",
+        name = "Screenshot Area",
+        description = "Part of the client to include in drop screenshots"
+    )
+    default ScreenshotCrop screenshotCrop() {
+        return ScreenshotCrop.NONE;
+    }
+
+    @ConfigItem(
+        keyName = "priceSource",
+        name = "Drop Price Source",
+        description = "Price used to decide whether a drop is valuable enough to screenshot"
+    )
+    default PriceSource priceSource() {
+        return PriceSource.GRAND_EXCHANGE;
+    }
+
+    @ConfigItem(
+        keyName = "valuableDropThreshold",
+        name = "Valuable Drop Threshold",
+        description = "Drops worth more than this many gp are screenshotted and submitted"
+    )
+    default int valuableDropThreshold() {
+        return 1000000;
+    }
+}
@@ -0,0 +1,206 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plugin-owned execution layer. All network, disk and image work runs here
+ * instead of on the JVM common pool or ad-hoc threads, so the plugin never
+ * starves RuneLite or other plugins and everything is drained on shutdown.
+ *
+ * - io: network calls and disk writes
+ * - cpu: image capture post-processing and encoding
+ * - scheduler: timers only; work is handed off to io/cpu
+ */
+@Slf4j
+@Singleton
+public class BingoExecutors
+{
+    private static final int IO_THREADS = 4;
+    private static final int IO_QUEUE_DEPTH = 256;
+    private static final int CPU_THREADS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() / 2));
+    private static final int CPU_QUEUE_DEPTH = 16;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private ThreadPoolExecutor ioExecutor;
+    private ThreadPoolExecutor cpuExecutor;
+    private ScheduledThreadPoolExecutor scheduler;
+
+    /**
+     * Create the pools. Called from plugin startup; a no-op if already running.
+     */
+    public synchronized void start()
+    {
+        if (ioExecutor == null || ioExecutor.isShutdown())
+        {
+            ioExecutor = createPool("bingo-io", IO_THREADS, IO_QUEUE_DEPTH);
+        }
+        if (cpuExecutor == null || cpuExecutor.isShutdown())
+        {
+            cpuExecutor = createPool("bingo-cpu", CPU_THREADS, CPU_QUEUE_DEPTH);
+        }
+        if (scheduler == null || scheduler.isShutdown())
+        {
+            scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("bingo-scheduler"));
+            scheduler.setRemoveOnCancelPolicy(true);
+            // Pending timers (retry backoff, reconnects, delayed saves) are dropped on shutdown;
+            // the work they would start is kept in the spool or flushed explicitly
+            scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        }
+        log.info("Started plugin executors (io={}, cpu={})", IO_THREADS, CPU_THREADS);
+    }
+
+    /**
+     * Executor for network calls and disk writes
+     */
+    public synchronized ExecutorService io()
+    {
+        return ioExecutor;
+    }
+
+    /**
+     * Executor for CPU-bound work such as image encoding
+     */
+    public synchronized ExecutorService cpu()
+    {
+        return cpuExecutor;
+    }
+
+    /**
+     * Shared scheduler for timers. Scheduled tasks should stay short and hand
+     * anything blocking to {@link #io()} or {@link #cpu()}.
+     */
+    public synchronized ScheduledExecutorService scheduler()
+    {
+        return scheduler;
+    }
+
+    /**
+     * Periodically submit a task to the io pool. A full io queue skips that run
+     * instead of cancelling the schedule.
+     */
+    public ScheduledFuture<?> scheduleIo(Runnable task, long initialDelay, long delay, TimeUnit unit)
+    {
+        return scheduler().scheduleWithFixedDelay(() -> {
+            try
+            {
+                io().execute(task);
+            }
+            catch (RejectedExecutionException e)
+            {
+                log.debug("Skipped scheduled io task - pool busy or shut down");
+            }
+        }, initialDelay, delay, unit);
+    }
+
+    /**
+     * Stop accepting work and drain in-flight tasks, forcing anything left after the timeout.
+     * The timeout covers all pools together, since this is called from the EDT.
+     */
+    public void shutdown()
+    {
+        ScheduledThreadPoolExecutor scheduler;
+        ThreadPoolExecutor cpu;
+        ThreadPoolExecutor io;
+        synchronized (this)
+        {
+            scheduler = this.scheduler;
+            cpu = cpuExecutor;
+            io = ioExecutor;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+
+        // Stop timers first so nothing new is handed to the worker pools
+        drain(scheduler, "scheduler", deadline);
+        drain(cpu, "cpu", deadline);
+        drain(io, "io", deadline);
+        log.info("Plugin executors shutdown complete");
+    }
+
+    private void drain(ExecutorService executor, String name, long deadline)
+    {
+        if (executor == null)
+        {
+            return;
+        }
+
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS))
+            {
+                log.warn("Timed out draining {} executor, {} tasks dropped", name, executor.shutdownNow().size());
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadPoolExecutor createPool(String name, int threads, int queueDepth)
+    {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueDepth),
+            new NamedThreadFactory(name),
+            new LoggingAbortPolicy(name)
+        );
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory
+    {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        NamedThreadFactory(String prefix)
+        {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler((t, e) -> log.error("Uncaught exception in {}", t.getName(), e));
+            return thread;
+        }
+    }
+
+    private static class LoggingAbortPolicy implements RejectedExecutionHandler
+    {
+        private final String name;
+
+        LoggingAbortPolicy(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor)
+        {
+            log.warn("Rejected task on {} pool (queued: {}, shutdown: {})", name, executor.getQueue().size(), executor.isShutdown());
+            throw new RejectedExecutionException("Bingo " + name + " pool is full or shut down");
+        }
+    }
+}
@@ -6,7 +6,9 @@ import net.runelite.api.Client;
 import net.runelite.api.GameState;
 import net.runelite.api.events.GameStateChanged;
 import net.runelite.client.config.ConfigManager;
+import net.runelite.client.eventbus.EventBus;
 import net.runelite.client.eventbus.Subscribe;
+import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
 import net.runelite.client.ui.ClientToolbar;
@@ -46,6 +48,24 @@ public class BingoPlugin extends Plugin
     @Inject
     private BingoActivityHandler activityHandler;
     
+    @Inject
+    private ActivitySubmissionQueue submissionQueue;
+    
+    @Inject
+    private BingoExecutors executors;
+    
+    @Inject
+    private EventBus eventBus;
+    
+    @Inject
+    private BingoSession session;
+
+    @Inject
+    private KillCountTracker killCountTracker;
+
+    @Inject
+    private ActivitySpool activitySpool;
+    
     private NavigationButton navButton;
     private AuthPanel authPanel;
     private BingoMainPanel mainPanel;
@@ -56,6 +76,13 @@ public class BingoPlugin extends Plugin
     {
         log.info("Bingo plugin started");
 
+        executors.start();
+        session.refresh();
+
+        // Activity tracking listens for loot and death events alongside the plugin
+        eventBus.register(activityHandler);
+        submissionQueue.start();
+
         // Check if user is already authenticated
         if (config.isAuthenticated() && !config.jwtToken().isEmpty())
         {
@@ -78,6 +105,13 @@ public class BingoPlugin extends Plugin
     {
         log.info("Bingo plugin stopped");
 
+        eventBus.unregister(activityHandler);
+        // Queued on the io pool, which the executor shutdown below drains
+        killCountTracker.flush();
+
+        // Hands anything still waiting in the current batch window to the io pool
+        submissionQueue.shutdown();
+
         // Clean up resources
         if (bingoService != null)
         {
@@ -93,6 +127,12 @@ public class BingoPlugin extends Plugin
         {
             mainPanel.shutdown();
         }
+
+        // Drain network and disk work last, after everything that submits to it has stopped
+        executors.shutdown();
+
+        // Only now can nothing append to or acknowledge in the spool
+        activitySpool.shutdown();
     }
 
     private void createNavigationButton()
@@ -138,7 +178,7 @@ public class BingoPlugin extends Plugin
     {
         if (authPanel == null)
         {
-            authPanel = new AuthPanel(config, bingoService, client, this::onAuthenticationSuccess);
+            authPanel = new AuthPanel(config, bingoService, client, executors, this::onAuthenticationSuccess);
         }
         
         switchToPanel(authPanel);
@@ -219,6 +259,15 @@ public class BingoPlugin extends Plugin
         showAuthPanel();
     }
 
+    @Subscribe
+    public void onConfigChanged(ConfigChanged configChanged)
+    {
+        if ("bingo".equals(configChanged.getGroup()))
+        {
+            session.refresh();
+        }
+    }
+
     @Subscribe
     public void onGameStateChanged(GameStateChanged gameStateChanged)
     {
@@ -227,6 +276,13 @@ public class BingoPlugin extends Plugin
         {
             authPanel.onGameStateChanged();
         }
+
+        // LOADING and HOPPING pass through while still in game, so only these two change the heartbeat rate
+        GameState state = gameStateChanged.getGameState();
+        if (state == GameState.LOGGED_IN || state == GameState.LOGIN_SCREEN)
+        {
+            bingoService.setPlayerLoggedIn(state == GameState.LOGGED_IN);
+        }
     }
 
     private BufferedImage createMinimalIcon()
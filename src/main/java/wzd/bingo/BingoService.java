@@ -12,21 +12,31 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.swing.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
-import javax.imageio.ImageIO;
 
 @Slf4j
 @Singleton
 public class BingoService
 {
     private static final String CONTENT_TYPE_JSON = "application/json";
+    private static final String ACTIVE_EVENTS_PATH = "/api/bingo/events/active";
+    public static final int ACTIVITY_PAGE_SIZE = 50;
+    private static final long STREAM_PING_INTERVAL_SECONDS = 30;
+    private static final String HEARTBEAT_PATH = "/api/bingo/heartbeat";
     private static final int HEARTBEAT_INTERVAL_SECONDS = 300; // 5 minutes instead of 1 minute
+    private static final int HEARTBEAT_LOGGED_OUT_INTERVAL_SECONDS = 900;
+    private static final int HEARTBEAT_LOGIN_DELAY_SECONDS = 30;
+    private static final double HEARTBEAT_JITTER = 0.2;
+    private static final long TOKEN_RENEW_BEFORE_EXPIRY_MS = 5 * 60 * 1000;
+    private static final long TOKEN_RENEW_MIN_INTERVAL_MS = 60 * 1000;
     
     @Inject
     private BingoConfig config;
@@ -37,10 +47,42 @@ public class BingoService
     @Inject
     private OkHttpClient httpClient;
     
+    @Inject
+    private ActivitySubmissionQueue submissionQueue;
+    
+    @Inject
+    private BingoExecutors executors;
+    
+    @Inject
+    private ScreenshotEncoder screenshotEncoder;
+
+    @Inject
+    private TileRuleIndex tileRuleIndex;
+    
+    @Inject
+    private BingoApiClient apiClient;
+    
+    @Inject
+    private BingoSession session;
+    
+    @Inject
+    private SignupStatusCache signupStatusCache;
+    
+    @Inject
+    private CircuitBreakers breakers;
+    
+    @Inject
+    private IdempotencyKeys idempotencyKeys;
+    
     private final Gson gson = new Gson();
-    private ScheduledExecutorService heartbeatExecutor;
+    private final Object heartbeatLock = new Object();
+    private ScheduledFuture<?> heartbeatTask;
+    private boolean heartbeatRunning = false;
+    private volatile boolean playerLoggedIn = true;
+    private OkHttpClient streamClient;
     private volatile boolean isAuthenticated = false;
-    private volatile long lastHeartbeatTime = 0;
+    private ScheduledFuture<?> tokenRenewalTask;
+    private volatile long lastTokenRenewal = 0;
     
     // Callback for JWT expiration
     private Runnable jwtExpirationCallback;
@@ -53,6 +95,128 @@ public class BingoService
         this.jwtExpirationCallback = callback;
     }
 
+    /**
+     * Schedule a re-authentication shortly before the current token's exp claim.
+     * Tokens without a readable exp are left to the 401 handler.
+     */
+    private synchronized void scheduleTokenRenewal()
+    {
+        cancelTokenRenewal();
+        
+        long expiresAt = session.get().getTokenExpiresAt();
+        if (expiresAt == BingoSession.UNKNOWN_EXPIRY)
+        {
+            log.debug("JWT has no exp claim - renewal will happen on 401");
+            return;
+        }
+        
+        long delay = Math.max(0, expiresAt - TOKEN_RENEW_BEFORE_EXPIRY_MS - System.currentTimeMillis());
+        tokenRenewalTask = executors.scheduler().schedule(() -> executors.io().execute(this::renewToken),
+            delay, TimeUnit.MILLISECONDS);
+        log.info("Scheduled JWT renewal in {}s", delay / 1000);
+    }
+    
+    private synchronized void cancelTokenRenewal()
+    {
+        if (tokenRenewalTask != null)
+        {
+            tokenRenewalTask.cancel(false);
+            tokenRenewalTask = null;
+        }
+    }
+    
+    /**
+     * Re-authenticate with the stored Discord ID and RSN. Requests made meanwhile
+     * are held by the session gate and sent with the new token once it lands.
+     */
+    private void renewToken()
+    {
+        if (session.beginRenewal())
+        {
+            renewWithGateHeld();
+        }
+    }
+    
+    /**
+     * Renew once {@link BingoSession#beginRenewal()} has succeeded; always releases the gate
+     */
+    private void renewWithGateHeld()
+    {
+        String rsn = config.rsn();
+        String discordId = config.discordId();
+        
+        boolean renewed = false;
+        try
+        {
+            if (rsn == null || rsn.isEmpty() || discordId == null || discordId.isEmpty())
+            {
+                log.warn("Cannot renew JWT - no stored Discord ID or RSN");
+            }
+            else
+            {
+                log.info("Renewing JWT for {}", rsn);
+                renewed = authenticateWithDiscord(rsn, discordId).isPresent();
+            }
+        }
+        finally
+        {
+            // Releases held requests; after a failed renewal they fail fast with 401 as before
+            session.endRenewal();
+        }
+        
+        if (renewed)
+        {
+            lastTokenRenewal = System.currentTimeMillis();
+            scheduleTokenRenewal();
+        }
+        else
+        {
+            handleJwtExpiration();
+        }
+    }
+    
+    /**
+     * A request was rejected with 401. Try a single re-authentication before logging out,
+     * unless the token was only just renewed. The session gate is taken here rather than
+     * on the io pool, so {@link BingoSession#whenReady()} covers the renewal as soon as
+     * this returns.
+     * @return true if a renewal is in progress, false if the user was logged out instead
+     */
+    private boolean handleUnauthorized()
+    {
+        // Whatever the outcome, responses fetched with the rejected token are not trusted
+        apiClient.clearCache();
+        
+        if (session.isRenewing())
+        {
+            return true;
+        }
+        
+        if (System.currentTimeMillis() - lastTokenRenewal < TOKEN_RENEW_MIN_INTERVAL_MS)
+        {
+            handleJwtExpiration();
+            return false;
+        }
+        
+        if (!session.beginRenewal())
+        {
+            // Another caller started one just now
+            return true;
+        }
+        
+        try
+        {
+            executors.io().execute(this::renewWithGateHeld);
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            session.endRenewal();
+            handleJwtExpiration();
+            return false;
+        }
+    }
+
     /**
      * Handle JWT expiration by clearing auth and triggering callback
      */
@@ -60,6 +224,8 @@ public class BingoService
     {
         log.warn("Handling JWT token expiration - logging out user");
         isAuthenticated = false;
+        cancelTokenRenewal();
+        apiClient.clearCache();
         configManager.setConfiguration("bingo", "jwtToken", "");
         configManager.setConfiguration("bingo", "isAuthenticated", false);
         
@@ -151,95 +317,40 @@ public class BingoService
     }
 
     /**
-     * Fetch user's bingo board data
+     * Fetch user's bingo board data and compile its tile rules
      * @param rsn The RuneScape username
-     * @return Optional containing board data if successful
+     * @return Future completing with the board data, or empty if the request failed
      */
-    public Optional<JsonObject> fetchBoardData(String rsn)
+    public CompletableFuture<Optional<JsonObject>> fetchBoardData(String rsn)
     {
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/board/" + rsn;
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .build();
-        
-        try (Response response = httpClient.newCall(request).execute())
-        {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseJson = response.body().string();
-                JsonObject boardData = gson.fromJson(responseJson, JsonObject.class);
+        return apiClient.getCached("/api/bingo/board/" + rsn, BingoService::asObject)
+            .thenApply(boardData -> {
                 log.info("Successfully fetched board data for RSN: {}", rsn);
+                tileRuleIndex.compile(boardData);
                 return Optional.of(boardData);
-            }
-            else if (response.code() == 401)
-            {
-                log.warn("JWT token expired, authentication required");
-                handleJwtExpiration();
-                return Optional.empty();
-            }
-            else
-            {
-                log.warn("Failed to fetch board data: HTTP {}", response.code());
-            }
-        }
-        catch (IOException e)
-        {
-            log.error("Board data request failed", e);
-        }
-        
-        return Optional.empty();
+            })
+            .exceptionally(e -> failed("board data", e));
     }
 
     /**
      * Fetch team progress and statistics
      * @param teamId The team ID
-     * @return Optional containing team data if successful
+     * @return Future completing with the team data, or empty if the request failed
      */
-    public Optional<JsonObject> fetchTeamData(String teamId)
+    public CompletableFuture<Optional<JsonObject>> fetchTeamData(String teamId)
     {
         if (teamId == null || teamId.isEmpty())
         {
             log.warn("Cannot fetch team data - no team ID provided");
-            return Optional.empty();
+            return CompletableFuture.completedFuture(Optional.empty());
         }
         
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/team/" + teamId;
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .build();
-        
-        try (Response response = httpClient.newCall(request).execute())
-        {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseJson = response.body().string();
-                JsonObject teamData = gson.fromJson(responseJson, JsonObject.class);
+        return apiClient.getCached("/api/bingo/team/" + teamId, BingoService::asObject)
+            .thenApply(teamData -> {
                 log.info("Successfully fetched team data for team: {}", teamId);
                 return Optional.of(teamData);
-            }
-            else if (response.code() == 401)
-            {
-                log.warn("JWT token expired, authentication required");
-                handleJwtExpiration();
-                return Optional.empty();
-            }
-            else
-            {
-                log.warn("Failed to fetch team data: HTTP {}", response.code());
-            }
-        }
-        catch (IOException e)
-        {
-            log.error("Team data request failed", e);
-        }
-        
-        return Optional.empty();
+            })
+            .exceptionally(e -> failed("team data", e));
     }
 
     /**
@@ -247,38 +358,60 @@ public class BingoService
      * @param tileId The ID of the completed tile
      * @param method The completion method (drop, action, etc.)
      * @param evidenceText Text description of the evidence
-     * @param screenshot Screenshot as BufferedImage
+     * @param screenshot Screenshot as BufferedImage, sent as a binary multipart part
      * @return true if submission was successful
      */
     public boolean submitTileCompletion(String tileId, String method, String evidenceText, BufferedImage screenshot)
+    {
+        return submitTileCompletion(tileId, method, evidenceText, screenshot,
+            idempotencyKeys.forTileSubmission(config.rsn(), tileId, method));
+    }
+
+    /**
+     * Submit tile completion with evidence under a caller supplied idempotency key.
+     * Retrying with the same key cannot complete the tile twice.
+     * @param idempotencyKey Key from {@link IdempotencyKeys#forTileSubmission}, reused for every retry
+     * @return true if submission was successful or was already accepted earlier
+     */
+    public boolean submitTileCompletion(String tileId, String method, String evidenceText, BufferedImage screenshot,
+        String idempotencyKey)
     {
         String apiEndpoint = config.authApiUrl() + "/api/bingo/submit";
         String rsn = config.rsn();
         
+        if (idempotencyKeys.isAccepted(idempotencyKey))
+        {
+            log.debug("Tile completion {} already accepted - not resending", tileId);
+            return true;
+        }
+        
         try
         {
-            // Convert screenshot to base64
-            String screenshotBase64 = convertImageToBase64(screenshot);
-            
-            // Create request body
-            JsonObject requestBody = new JsonObject();
-            requestBody.addProperty("rsn", rsn);
-            requestBody.addProperty("tileId", tileId);
-            requestBody.addProperty("method", method);
-            requestBody.addProperty("evidenceText", evidenceText);
-            requestBody.addProperty("timestamp", System.currentTimeMillis() / 1000);
-            requestBody.addProperty("screenshot", screenshotBase64);
+            // Send fields and the encoded screenshot as multipart parts so the image is
+            // streamed as binary instead of being inlined as base64 JSON
+            MultipartBody.Builder bodyBuilder = new MultipartBody.Builder()
+                .setType(MultipartBody.FORM)
+                .addFormDataPart("rsn", rsn)
+                .addFormDataPart("tileId", tileId)
+                .addFormDataPart("method", method)
+                .addFormDataPart("evidenceText", evidenceText != null ? evidenceText : "")
+                .addFormDataPart("timestamp", String.valueOf(System.currentTimeMillis() / 1000));
             
-            RequestBody body = RequestBody.create(
-                MediaType.get(CONTENT_TYPE_JSON),
-                gson.toJson(requestBody)
-            );
+            if (screenshot != null)
+            {
+                // Evidence is supplied already framed by the caller, so only format and size apply
+                ScreenshotProfile configured = ScreenshotProfile.fromConfig(config);
+                ScreenshotProfile profile = new ScreenshotProfile(configured.getFormat(), configured.getQuality(),
+                    configured.getMaxDimension(), ScreenshotCrop.NONE);
+                EncodedScreenshot encoded = screenshotEncoder.encode(screenshot, profile);
+                bodyBuilder.addFormDataPart("screenshot", "screenshot." + encoded.getExtension(), encoded.toRequestBody());
+            }
             
             Request request = new Request.Builder()
                 .url(apiEndpoint)
-                .post(body)
+                .post(bodyBuilder.build())
                 .addHeader("Authorization", "Bearer " + config.jwtToken())
-                .addHeader("Content-Type", CONTENT_TYPE_JSON)
+                .addHeader("Idempotency-Key", idempotencyKey)
                 .build();
             
             try (Response response = httpClient.newCall(request).execute())
@@ -291,6 +424,7 @@ public class BingoService
                     
                     if ("ok".equals(status))
                     {
+                        idempotencyKeys.markAccepted(Collections.singletonList(idempotencyKey));
                         log.info("Successfully submitted tile completion: {}", tileId);
                         return true;
                     }
@@ -298,7 +432,7 @@ public class BingoService
                 else if (response.code() == 401)
                 {
                     log.warn("JWT token expired during tile submission");
-                    handleJwtExpiration();
+                    handleUnauthorized();
                 }
                 else
                 {
@@ -319,7 +453,7 @@ public class BingoService
      */
     public void sendHeartbeat()
     {
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/heartbeat";
+        String apiEndpoint = config.authApiUrl() + HEARTBEAT_PATH;
         String rsn = config.rsn();
         
         if (rsn == null || rsn.isEmpty() || config.jwtToken().isEmpty())
@@ -327,11 +461,24 @@ public class BingoService
             return; // Not authenticated
         }
         
-        // Prevent duplicate heartbeats within short time periods
+        if (session.isRenewing())
+        {
+            log.debug("Skipping heartbeat - JWT renewal in progress");
+            return;
+        }
+        
+        // Heartbeats sit in the lowest lane and are the first thing shed under load
+        if (submissionQueue.isBacklogged())
+        {
+            log.debug("Skipping heartbeat - activity submissions backlogged");
+            return;
+        }
+        
+        // A recent heartbeat or accepted activity batch already tells the server we are online
         long currentTime = System.currentTimeMillis();
-        if (currentTime - lastHeartbeatTime < (HEARTBEAT_INTERVAL_SECONDS * 1000L * 0.8)) // 80% of interval
+        if (currentTime - session.getLastServerContact() < (getHeartbeatIntervalMs() * 0.8)) // 80% of interval
         {
-            log.debug("Skipping heartbeat - too soon since last one");
+            log.debug("Skipping heartbeat - server contacted recently");
             return;
         }
         
@@ -352,17 +499,34 @@ public class BingoService
             .addHeader("Content-Type", CONTENT_TYPE_JSON)
             .build();
         
+        // A dead API is skipped until the circuit half-opens; the next beat is the probe
+        CircuitBreaker breaker = breakers.forRequest("POST", HEARTBEAT_PATH);
+        if (!breaker.allowRequest())
+        {
+            log.debug("Skipping heartbeat - circuit open for {}", breaker.getEndpoint());
+            return;
+        }
+        
         try (Response response = httpClient.newCall(request).execute())
         {
+            if (RetryPolicy.isRetryableStatus(response.code()))
+            {
+                breaker.recordFailure();
+            }
+            else
+            {
+                breaker.recordSuccess();
+            }
+            
             if (response.isSuccessful())
             {
-                lastHeartbeatTime = currentTime;
+                session.markServerContact();
                 log.debug("Heartbeat sent successfully for RSN: {} at {}", rsn, currentTime);
             }
             else if (response.code() == 401)
             {
                 log.warn("JWT token expired during heartbeat");
-                handleJwtExpiration();
+                handleUnauthorized();
             }
             else
             {
@@ -371,6 +535,7 @@ public class BingoService
         }
         catch (IOException e)
         {
+            breaker.recordFailure();
             log.error("Heartbeat request failed", e);
         }
     }
@@ -386,20 +551,19 @@ public class BingoService
     }
     
     /**
-     * Start sending periodic heartbeats
+     * Start sending periodic heartbeats on the shared scheduler
      */
     public void startHeartbeat()
     {
-        if (heartbeatExecutor == null || heartbeatExecutor.isShutdown())
+        synchronized (heartbeatLock)
         {
-            heartbeatExecutor = new ScheduledThreadPoolExecutor(1);
-            heartbeatExecutor.scheduleAtFixedRate(
-                this::sendHeartbeat,
-                HEARTBEAT_INTERVAL_SECONDS,
-                HEARTBEAT_INTERVAL_SECONDS,
-                TimeUnit.SECONDS
-            );
-            log.info("Started heartbeat service ({}s interval)", HEARTBEAT_INTERVAL_SECONDS);
+            if (!heartbeatRunning)
+            {
+                heartbeatRunning = true;
+                scheduleHeartbeat(jitter(getHeartbeatIntervalMs()));
+                log.info("Started heartbeat service ({}s interval, {}s while logged out)",
+                    HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_LOGGED_OUT_INTERVAL_SECONDS);
+            }
         }
     }
 
@@ -408,10 +572,98 @@ public class BingoService
      */
     public void stopHeartbeat()
     {
-        if (heartbeatExecutor != null && !heartbeatExecutor.isShutdown())
+        synchronized (heartbeatLock)
         {
-            heartbeatExecutor.shutdown();
-            log.info("Stopped heartbeat service");
+            if (heartbeatRunning)
+            {
+                heartbeatRunning = false;
+                if (heartbeatTask != null)
+                {
+                    heartbeatTask.cancel(false);
+                    heartbeatTask = null;
+                }
+                log.info("Stopped heartbeat service");
+            }
+        }
+    }
+
+    /**
+     * Track whether the player is in game. Heartbeats slow down while logged out
+     * and are brought forward again on login.
+     */
+    public void setPlayerLoggedIn(boolean loggedIn)
+    {
+        if (playerLoggedIn == loggedIn)
+        {
+            return;
+        }
+        playerLoggedIn = loggedIn;
+
+        if (loggedIn)
+        {
+            synchronized (heartbeatLock)
+            {
+                if (heartbeatRunning && heartbeatTask != null)
+                {
+                    heartbeatTask.cancel(false);
+                    scheduleHeartbeat(jitter(HEARTBEAT_LOGIN_DELAY_SECONDS * 1000L));
+                }
+            }
+        }
+    }
+
+    private long getHeartbeatIntervalMs()
+    {
+        return (playerLoggedIn ? HEARTBEAT_INTERVAL_SECONDS : HEARTBEAT_LOGGED_OUT_INTERVAL_SECONDS) * 1000L;
+    }
+
+    /**
+     * Spread a delay by +/- HEARTBEAT_JITTER so clients started together drift apart
+     */
+    private static long jitter(long delayMs)
+    {
+        return (long) (delayMs * ThreadLocalRandom.current().nextDouble(1 - HEARTBEAT_JITTER, 1 + HEARTBEAT_JITTER));
+    }
+
+    private void scheduleHeartbeat(long delayMs)
+    {
+        synchronized (heartbeatLock)
+        {
+            if (!heartbeatRunning)
+            {
+                return;
+            }
+
+            try
+            {
+                heartbeatTask = executors.scheduler().schedule(this::runHeartbeat, delayMs, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException e)
+            {
+                log.warn("Could not schedule heartbeat - executors shut down");
+            }
+        }
+    }
+
+    private void runHeartbeat()
+    {
+        try
+        {
+            // The network call runs on the io pool; the next beat is re-jittered once it finishes
+            executors.io().execute(() -> {
+                try
+                {
+                    sendHeartbeat();
+                }
+                finally
+                {
+                    scheduleHeartbeat(jitter(getHeartbeatIntervalMs()));
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            scheduleHeartbeat(jitter(getHeartbeatIntervalMs()));
         }
     }
 
@@ -427,19 +679,16 @@ public class BingoService
         {
             log.info("Initializing Bingo service for user: {}", rsn);
             isAuthenticated = true;
+            apiClient.setUnauthorizedHandler(this::handleUnauthorized);
+            scheduleTokenRenewal();
             
             // Start background services
             startHeartbeat();
             
-            // Fetch initial data on background thread
-            new Thread(() -> {
-                fetchBoardData(rsn);
-                String teamId = config.teamId();
-                if (teamId != null && !teamId.isEmpty())
-                {
-                    fetchTeamData(teamId);
-                }
-            }).start();
+            // Replay unsent activities on the io pool; board and team data load asynchronously
+            executors.io().execute(submissionQueue::replaySpool);
+            fetchBoardData(rsn);
+            fetchTeamData(config.teamId());
         }
         else
         {
@@ -453,6 +702,11 @@ public class BingoService
     public void shutdown()
     {
         stopHeartbeat();
+        cancelTokenRenewal();
+        tileRuleIndex.clear();
+        apiClient.clearCache();
+        signupStatusCache.clear();
+        breakers.clear();
         isAuthenticated = false;
         log.info("Bingo service shutdown complete");
     }
@@ -465,25 +719,6 @@ public class BingoService
         return isAuthenticated && config.jwtToken() != null && !config.jwtToken().isEmpty();
     }
 
-    /**
-     * Convert BufferedImage to base64 string
-     */
-    private String convertImageToBase64(BufferedImage image)
-    {
-        try
-        {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "png", baos);
-            byte[] imageBytes = baos.toByteArray();
-            return Base64.getEncoder().encodeToString(imageBytes);
-        }
-        catch (IOException e)
-        {
-            log.error("Failed to convert image to base64", e);
-            return "";
-        }
-    }
-
     /**
      * Get the configured authentication API base URL
      */
@@ -504,420 +739,284 @@ public class BingoService
 
     /**
      * Fetch active bingo events for the authenticated user
-     * @return Optional containing active events data if successful
+     * @return Future completing with the active events data, or empty if the request failed
      */
-    public Optional<JsonObject> fetchActiveEvents()
+    public CompletableFuture<Optional<JsonObject>> fetchActiveEvents()
     {
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/events/active";
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .addHeader("Accept", "application/json")
-            .addHeader("Content-Type", "application/json")
-            .build();
-        
-        try (Response response = httpClient.newCall(request).execute())
-        {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseBody = response.body().string();
-                log.info("Active events API response body: {}", responseBody);
-                
-                // Check if response is empty
-                if (responseBody == null || responseBody.trim().isEmpty())
-                {
-                    log.warn("Empty response from active events API");
-                    return Optional.empty();
-                }
-                
-                // Check if response is HTML (common when API returns error pages)
-                String trimmedResponse = responseBody.trim();
-                if (trimmedResponse.startsWith("<!") || trimmedResponse.startsWith("<html"))
-                {
-                    log.error("API returned HTML instead of JSON. This usually indicates the API endpoint is not available or there's a server configuration issue.");
-                    log.error("Response preview: {}", trimmedResponse.length() > 200 ? trimmedResponse.substring(0, 200) + "..." : trimmedResponse);
-                    return Optional.empty();
-                }
-                
-                // Try to parse as JSON
-                try
-                {
-                    JsonElement element = gson.fromJson(responseBody, JsonElement.class);
-                    
-                    if (element == null)
-                    {
-                        log.warn("JSON parsing returned null for response: {}", responseBody);
-                        return Optional.empty();
-                    }
-                    
-                    if (element.isJsonObject())
-                    {
-                        JsonObject eventsData = element.getAsJsonObject();
-                        log.info("Successfully fetched active events data as object");
-                        return Optional.of(eventsData);
-                    }
-                    else if (element.isJsonArray())
-                    {
-                        // If array is returned directly, wrap it in an object
-                        log.info("API returned array directly, wrapping in object");
-                        JsonObject wrappedResponse = new JsonObject();
-                        wrappedResponse.addProperty("hasActiveEvent", element.getAsJsonArray().size() > 0);
-                        wrappedResponse.add("events", element.getAsJsonArray());
-                        return Optional.of(wrappedResponse);
-                    }
-                    else if (element.isJsonPrimitive())
-                    {
-                        // API returned a simple string/primitive - create mock response
-                        log.warn("API returned primitive response: {}", element.getAsString());
-                        JsonObject mockResponse = new JsonObject();
-                        mockResponse.addProperty("hasActiveEvent", false);
-                        mockResponse.add("activeEvents", new JsonArray());
-                        return Optional.of(mockResponse);
-                    }
-                    else
-                    {
-                        log.warn("Unexpected JSON response format from active events API");
-                        return Optional.empty();
-                    }
-                }
-                catch (Exception jsonException)
-                {
-                    log.error("Failed to parse JSON response from active events API", jsonException);
-                    log.error("Response body that failed to parse: {}", responseBody);
-                    
-                    // Return mock empty response to prevent UI crashes
-                    JsonObject mockResponse = new JsonObject();
-                    mockResponse.addProperty("hasActiveEvent", false);
-                    mockResponse.add("activeEvents", new JsonArray());
-                    return Optional.of(mockResponse);
-                }
-            }
-            else if (response.code() == 401)
+        return apiClient.getCached(ACTIVE_EVENTS_PATH, element -> {
+            if (element.isJsonObject())
             {
-                log.warn("JWT token expired, authentication required");
-                handleJwtExpiration();
-                return Optional.empty();
+                log.debug("Successfully fetched active events data as object");
+                return element.getAsJsonObject();
             }
-            else if (response.code() == 404)
+            else if (element.isJsonArray())
             {
-                log.warn("Active events API endpoint not found (404). Check API configuration.");
-                return Optional.empty();
+                // If array is returned directly, wrap it in an object
+                log.debug("API returned array directly, wrapping in object");
+                JsonObject wrappedResponse = new JsonObject();
+                wrappedResponse.addProperty("hasActiveEvent", element.getAsJsonArray().size() > 0);
+                wrappedResponse.add("events", element.getAsJsonArray());
+                return wrappedResponse;
             }
             else
             {
-                log.warn("Failed to fetch active events: HTTP {} - {}", response.code(), response.message());
-                if (response.body() != null)
-                {
-                    try 
-                    {
-                        String errorBody = response.body().string();
-                        log.warn("Error response body: {}", errorBody.length() > 500 ? errorBody.substring(0, 500) + "..." : errorBody);
-                    }
-                    catch (Exception e)
-                    {
-                        log.warn("Could not read error response body", e);
-                    }
-                }
+                // API returned a simple string/primitive - treat as no active events
+                log.warn("API returned primitive response: {}", element);
+                JsonObject emptyResponse = new JsonObject();
+                emptyResponse.addProperty("hasActiveEvent", false);
+                emptyResponse.add("activeEvents", new JsonArray());
+                return emptyResponse;
             }
-        }
-        catch (IOException e)
-        {
-            log.error("Network error during active events request", e);
-        }
-        catch (Exception e)
-        {
-            log.error("Unexpected error during active events request", e);
-        }
-        
-        return Optional.empty();
+        })
+            .thenApply(Optional::of)
+            .exceptionally(e -> failed("active events", e));
     }
     
     /**
-     * Fetch activity log for a specific bingo event
+     * Last fetched active events, for rendering while a refresh is in flight
+     */
+    public Optional<JsonObject> getCachedActiveEvents()
+    {
+        return Optional.ofNullable(apiClient.peekCached(ACTIVE_EVENTS_PATH));
+    }
+    
+    /**
+     * Last fetched activity log for an event, for rendering while a refresh is in flight
+     */
+    public Optional<JsonObject> getCachedActivityLog(String bingoId)
+    {
+        return Optional.ofNullable(apiClient.peekCached(activityLogPath(bingoId)));
+    }
+    
+    private static String activityLogPath(String bingoId)
+    {
+        return "/api/bingo/activity/" + bingoId + "?limit=" + ACTIVITY_PAGE_SIZE;
+    }
+    
+    /**
+     * Fetch only activity at or after the given timestamp, for incremental syncing
      * @param bingoId The bingo event ID
-     * @return Optional containing activity log data if successful
+     * @param since Unix timestamp (seconds) of the newest entry already held
+     * @return Future completing with the new entries, or empty if the request failed
      */
-    public Optional<JsonObject> fetchActivityLog(String bingoId)
+    public CompletableFuture<Optional<JsonArray>> fetchActivitySince(String bingoId, long since)
     {
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/activity/" + bingoId + "?limit=50";
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .addHeader("Accept", "application/json")
-            .addHeader("Content-Type", "application/json")
-            .build();
-        
-        try (Response response = httpClient.newCall(request).execute())
+        return apiClient.get("/api/bingo/activity/" + bingoId + "?since=" + since + "&limit=" + ACTIVITY_PAGE_SIZE,
+            BingoService::activitiesOf)
+            .thenApply(Optional::of)
+            .exceptionally(e -> failed("new activity", e));
+    }
+    
+    /**
+     * Fetch one page of activity older than the given timestamp
+     * @param bingoId The bingo event ID
+     * @param before Unix timestamp (seconds) of the oldest entry already held
+     * @return Future completing with up to {@link #ACTIVITY_PAGE_SIZE} entries, or empty if the request failed
+     */
+    public CompletableFuture<Optional<JsonArray>> fetchActivityBefore(String bingoId, long before)
+    {
+        return apiClient.get("/api/bingo/activity/" + bingoId + "?before=" + before + "&limit=" + ACTIVITY_PAGE_SIZE,
+            BingoService::activitiesOf)
+            .thenApply(Optional::of)
+            .exceptionally(e -> failed("older activity", e));
+    }
+    
+    /**
+     * Subscribe to new activity for an event. Streams over a WebSocket when the
+     * server supports it and polls with the since cursor otherwise.
+     * @param bingoId The bingo event ID
+     * @param since Unix timestamp (seconds) to resume from
+     * @param listener Receives new entries off the Swing thread
+     * @return The running subscription; stop it when the event is no longer shown
+     */
+    public ActivityFeedSubscription subscribeToActivity(String bingoId, long since, ActivityFeedSubscription.Listener listener)
+    {
+        ActivityFeedSubscription subscription = new ActivityFeedSubscription(bingoId, since, getStreamClient(), this,
+            session, executors, listener);
+        subscription.start();
+        return subscription;
+    }
+    
+    private synchronized OkHttpClient getStreamClient()
+    {
+        // Shares the injected client's pool; pings detect half-open streams
+        if (streamClient == null)
         {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseBody = response.body().string();
-                log.debug("Activity log API response: {}", responseBody.length() > 200 ? responseBody.substring(0, 200) + "..." : responseBody);
-                
-                // Check if response is empty
-                if (responseBody == null || responseBody.trim().isEmpty())
-                {
-                    log.warn("Empty response from activity log API");
-                    return Optional.empty();
-                }
-                
-                // Check if response is HTML (common when API returns error pages)
-                String trimmedResponse = responseBody.trim();
-                if (trimmedResponse.startsWith("<!") || trimmedResponse.startsWith("<html"))
-                {
-                    log.error("Activity log API returned HTML instead of JSON");
-                    return Optional.empty();
-                }
-                
-                // Try to parse as JSON
-                try
-                {
-                    JsonObject activityData = gson.fromJson(responseBody, JsonObject.class);
-                    log.debug("Successfully fetched activity log for bingo ID: {}", bingoId);
-                    return Optional.of(activityData);
-                }
-                catch (Exception jsonException)
-                {
-                    log.error("Failed to parse JSON response from activity log API", jsonException);
-                    return Optional.empty();
-                }
-            }
-            else if (response.code() == 401)
-            {
-                log.warn("JWT token expired while fetching activity log");
-                handleJwtExpiration();
-                return Optional.empty();
-            }
-            else if (response.code() == 404)
-            {
-                log.warn("Activity log API endpoint not found (404) for bingo ID: {}", bingoId);
-                return Optional.empty();
-            }
-            else
-            {
-                log.warn("Failed to fetch activity log: HTTP {} - {}", response.code(), response.message());
-                return Optional.empty();
-            }
+            streamClient = httpClient.newBuilder()
+                .pingInterval(STREAM_PING_INTERVAL_SECONDS, TimeUnit.SECONDS)
+                .build();
         }
-        catch (IOException e)
+        return streamClient;
+    }
+    
+    private static JsonArray activitiesOf(JsonElement element)
+    {
+        if (element.isJsonArray())
         {
-            log.error("Network error during activity log request", e);
+            return element.getAsJsonArray();
         }
-        catch (Exception e)
+        if (element.isJsonObject() && element.getAsJsonObject().has("activities"))
         {
-            log.error("Unexpected error during activity log request", e);
+            return element.getAsJsonObject().getAsJsonArray("activities");
         }
-        
-        return Optional.empty();
+        return new JsonArray();
     }
     
     /**
-     * Check if the user is signed up for a specific bingo event
+     * Fetch activity log for a specific bingo event
      * @param bingoId The bingo event ID
-     * @return true if user is signed up, false otherwise
+     * @return Future completing with the activity log data, or empty if the request failed
      */
-    public boolean isSignedUpForEvent(String bingoId)
+    public CompletableFuture<Optional<JsonObject>> fetchActivityLog(String bingoId)
     {
-        SignupStatus status = getSignupStatusForEvent(bingoId);
-        return status.isSignedUp();
+        return apiClient.getCached(activityLogPath(bingoId), BingoService::asObject)
+            .thenApply(activityData -> {
+                log.debug("Successfully fetched activity log for bingo ID: {}", bingoId);
+                return Optional.of(activityData);
+            })
+            .exceptionally(e -> failed("activity log", e));
     }
     
     /**
-     * Get detailed signup status for a specific bingo event
+     * Get detailed signup status for a specific bingo event. Served from cache
+     * while fresh; failures are reported as a status and never cached.
      * @param bingoId The bingo event ID
-     * @return SignupStatus object with signup details
+     * @return Future completing with the signup status; never completes exceptionally
      */
-    public SignupStatus getSignupStatusForEvent(String bingoId)
+    public CompletableFuture<SignupStatus> getSignupStatusForEvent(String bingoId)
     {
-        String apiEndpoint = config.authApiUrl() + "/api/bingo/signup/status/" + bingoId + "?rsn=" + config.rsn();
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .addHeader("Accept", "application/json")
-            .build();
+        String rsn = session.get().getRsn();
+        SignupStatus cached = signupStatusCache.get(bingoId, rsn);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(cached);
+        }
         
-        try (Response response = httpClient.newCall(request).execute())
+        return fetchSignupStatus(bingoId, rsn).exceptionally(e -> {
+            Throwable cause = BingoApiClient.unwrap(e);
+            log.warn("Failed to check signup status for event {}: {}", bingoId, cause.getMessage());
+            return new SignupStatus(false, false, cause.getMessage() != null ? cause.getMessage() : "Unknown error");
+        });
+    }
+    
+    /**
+     * Signup status already known for an event, for rendering without waiting on the network
+     */
+    public Optional<SignupStatus> getCachedSignupStatus(String bingoId)
+    {
+        return Optional.ofNullable(signupStatusCache.get(bingoId, session.get().getRsn()));
+    }
+    
+    /**
+     * Warm the signup status cache for every listed event. Requests run in parallel
+     * on OkHttp's dispatcher; events with a fresh entry are skipped.
+     */
+    public void prefetchSignupStatuses(Collection<String> bingoIds)
+    {
+        String rsn = session.get().getRsn();
+        int requested = 0;
+        for (String bingoId : bingoIds)
         {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseBody = response.body().string();
-                log.debug("Signup status response length: {} chars", responseBody.length());
-                
-                // Check if response is HTML (common when API returns error pages or wrong endpoints)
-                String trimmedResponse = responseBody.trim();
-                if (trimmedResponse.startsWith("<!") || trimmedResponse.startsWith("<html"))
-                {
-                    log.warn("Signup status API returned HTML instead of JSON. This indicates the endpoint may not exist or there's a routing issue.");
-                    log.warn("API endpoint used: {}", apiEndpoint);
-                    log.warn("Response preview: {}", trimmedResponse.length() > 200 ? trimmedResponse.substring(0, 200) + "..." : trimmedResponse);
-                    return new SignupStatus(false, false, "API returned HTML"); // Default to not signed up when API returns HTML
-                }
-                
-                try
-                {
-                    JsonObject signupData = gson.fromJson(responseBody, JsonObject.class);
-                    
-                    if (signupData.has("signedUp"))
-                    {
-                        boolean isSignedUp = signupData.get("signedUp").getAsBoolean();
-                        boolean isAccepted = signupData.has("accepted") ? signupData.get("accepted").getAsBoolean() : false;
-                        String message = signupData.has("message") ? signupData.get("message").getAsString() : "";
-                        
-                        log.debug("Signup status for event {}: signedUp={}, accepted={}", bingoId, isSignedUp, isAccepted);
-                        return new SignupStatus(isSignedUp, isAccepted, message);
-                    }
-                }
-                catch (Exception jsonException)
-                {
-                    log.warn("Failed to parse signup status response as JSON: {}", responseBody.length() > 200 ? responseBody.substring(0, 200) + "..." : responseBody);
-                    // Try to handle as primitive boolean response
-                    if ("true".equalsIgnoreCase(responseBody.trim()) || "false".equalsIgnoreCase(responseBody.trim()))
-                    {
-                        boolean isSignedUp = Boolean.parseBoolean(responseBody.trim());
-                        log.debug("Parsed signup status as primitive boolean: {}", isSignedUp);
-                        return new SignupStatus(isSignedUp, false, ""); // Default accepted to false for primitive response
-                    }
-                }
-            }
-            else if (response.code() == 401)
+            if (bingoId == null || bingoId.isEmpty() || signupStatusCache.get(bingoId, rsn) != null)
             {
-                log.warn("JWT token expired while checking signup status");
-                handleJwtExpiration();
-            }
-            else if (response.code() == 404)
-            {
-                log.warn("Signup status API endpoint not found (404). Check if the endpoint '/api/bingo/signup/status/{}' is implemented on the backend.", bingoId);
-                log.warn("Full URL attempted: {}", apiEndpoint);
-            }
-            else
-            {
-                log.warn("Failed to check signup status: HTTP {} - {}", response.code(), response.message());
-                log.warn("API endpoint: {}", apiEndpoint);
-                
-                // Log response body for 500 errors to help with debugging
-                if (response.code() == 500 && response.body() != null)
-                {
-                    try
-                    {
-                        String errorBody = response.body().string();
-                        log.warn("Server error response body: {}", errorBody.length() > 500 ? errorBody.substring(0, 500) + "..." : errorBody);
-                    }
-                    catch (Exception e)
-                    {
-                        log.warn("Could not read error response body: {}", e.getMessage());
-                    }
-                }
+                continue;
             }
+            fetchSignupStatus(bingoId, rsn).exceptionally(e -> {
+                log.debug("Signup status prefetch failed for event {}: {}", bingoId, BingoApiClient.unwrap(e).getMessage());
+                return null;
+            });
+            requested++;
         }
-        catch (Exception e)
+        
+        if (requested > 0)
         {
-            log.error("Error checking signup status for event {}", bingoId, e);
+            log.debug("Prefetching signup status for {} events", requested);
         }
-        
-        return new SignupStatus(false, false, "Unknown error"); // Default to not signed up
+    }
+    
+    private CompletableFuture<SignupStatus> fetchSignupStatus(String bingoId, String rsn)
+    {
+        return apiClient.get("/api/bingo/signup/status/" + bingoId + "?rsn=" + rsn, element -> {
+            SignupStatus status = parseSignupStatus(bingoId, element);
+            signupStatusCache.put(bingoId, rsn, status);
+            return status;
+        });
     }
     
     /**
-     * Retrieve the Imgur client ID from the API
-     * @return The Imgur client ID if successful, null otherwise
+     * Only a response that states the signup is turned into a status; anything
+     * else is thrown so it is reported without being cached.
      */
-    public String getImgurClientId()
+    private static SignupStatus parseSignupStatus(String bingoId, JsonElement element) throws BingoApiException
     {
-        String apiEndpoint = config.authApiUrl() + "/api/secrets/imgur_client_id";
-        
-        Request request = new Request.Builder()
-            .url(apiEndpoint)
-            .get()
-            .addHeader("Authorization", "Bearer " + config.jwtToken())
-            .addHeader("Accept", "application/json")
-            .build();
+        if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isBoolean())
+        {
+            // Some deployments answer with a bare boolean
+            boolean isSignedUp = element.getAsBoolean();
+            log.debug("Parsed signup status as primitive boolean: {}", isSignedUp);
+            return new SignupStatus(isSignedUp, false, "");
+        }
         
-        try (Response response = httpClient.newCall(request).execute())
+        JsonObject signupData = asObject(element);
+        if (!signupData.has("signedUp"))
         {
-            if (response.isSuccessful() && response.body() != null)
-            {
-                String responseBody = response.body().string();
-                log.debug("Imgur client ID response length: {} chars", responseBody.length());
-                
-                // Check if response is HTML (common when API returns error pages or wrong endpoints)
-                String trimmedResponse = responseBody.trim();
-                if (trimmedResponse.startsWith("<!") || trimmedResponse.startsWith("<html"))
-                {
-                    log.warn("Imgur client ID API returned HTML instead of JSON. This indicates the endpoint may not exist or there's a routing issue.");
-                    log.warn("API endpoint used: {}", apiEndpoint);
-                    log.warn("Response preview: {}", trimmedResponse.length() > 200 ? trimmedResponse.substring(0, 200) + "..." : trimmedResponse);
-                    return null; // No client ID available when API returns HTML
-                }
-                
-                try
-                {
-                    JsonObject secretData = gson.fromJson(responseBody, JsonObject.class);
-                    
-                    if (secretData.has("success") && secretData.get("success").getAsBoolean() && secretData.has("value"))
-                    {
-                        String clientId = secretData.get("value").getAsString();
-                        log.debug("Successfully retrieved Imgur client ID");
-                        return clientId;
-                    }
-                }
-                catch (Exception jsonException)
-                {
-                    log.warn("Failed to parse Imgur client ID response as JSON: {}", responseBody.length() > 200 ? responseBody.substring(0, 200) + "..." : responseBody);
-                    // Try to handle as direct string response
-                    String trimmed = responseBody.trim();
-                    if (trimmed.length() > 0 && !trimmed.startsWith("{") && !trimmed.startsWith("[") && !trimmed.startsWith("<!"))
-                    {
-                        // Remove quotes if present
-                        if (trimmed.startsWith("\"") && trimmed.endsWith("\""))
-                        {
-                            trimmed = trimmed.substring(1, trimmed.length() - 1);
-                        }
-                        log.debug("Parsed Imgur client ID as primitive string: {}", trimmed);
-                        return trimmed;
-                    }
-                }
-            }
-            else if (response.code() == 401)
-            {
-                log.warn("JWT token expired while retrieving Imgur client ID");
-                handleJwtExpiration();
-            }
-            else if (response.code() == 404)
+            throw new BingoApiException(BingoApiException.NO_STATUS, "Unknown error");
+        }
+        
+        boolean isSignedUp = signupData.get("signedUp").getAsBoolean();
+        boolean isAccepted = signupData.has("accepted") && signupData.get("accepted").getAsBoolean();
+        String message = signupData.has("message") ? signupData.get("message").getAsString() : "";
+        
+        log.debug("Signup status for event {}: signedUp={}, accepted={}", bingoId, isSignedUp, isAccepted);
+        return new SignupStatus(isSignedUp, isAccepted, message);
+    }
+    
+    /**
+     * Retrieve the Imgur client ID from the API
+     * @return Future completing with the Imgur client ID, or null if it could not be retrieved
+     */
+    public CompletableFuture<String> getImgurClientId()
+    {
+        return apiClient.get("/api/secrets/imgur_client_id", element -> {
+            if (element.isJsonPrimitive())
             {
-                log.warn("Imgur client ID API endpoint not found (404). Check if the endpoint '/api/secrets/imgur_client_id' is implemented on the backend.");
-                log.warn("Full URL attempted: {}", apiEndpoint);
+                // Plain string response
+                return element.getAsString();
             }
-            else
+            
+            JsonObject secretData = element.getAsJsonObject();
+            if (secretData.has("success") && secretData.get("success").getAsBoolean() && secretData.has("value"))
             {
-                log.warn("Failed to retrieve Imgur client ID: HTTP {} - {}", response.code(), response.message());
-                log.warn("API endpoint: {}", apiEndpoint);
-                
-                // Log response body for 500 errors to help with debugging
-                if (response.code() == 500 && response.body() != null)
-                {
-                    try
-                    {
-                        String errorBody = response.body().string();
-                        log.warn("Server error response body: {}", errorBody.length() > 500 ? errorBody.substring(0, 500) + "..." : errorBody);
-                    }
-                    catch (Exception e)
-                    {
-                        log.warn("Could not read error response body: {}", e.getMessage());
-                    }
-                }
+                log.debug("Successfully retrieved Imgur client ID");
+                return secretData.get("value").getAsString();
             }
+            return null;
+        }).exceptionally(e -> {
+            log.warn("Failed to retrieve Imgur client ID: {}", BingoApiClient.unwrap(e).getMessage());
+            return null;
+        });
+    }
+    
+    private static JsonObject asObject(JsonElement element) throws BingoApiException
+    {
+        if (!element.isJsonObject())
+        {
+            throw new BingoApiException(BingoApiException.NO_STATUS, "Expected a JSON object");
         }
-        catch (Exception e)
+        return element.getAsJsonObject();
+    }
+    
+    private static <T> Optional<T> failed(String what, Throwable e)
+    {
+        Throwable cause = BingoApiClient.unwrap(e);
+        if (cause instanceof BingoApiException)
         {
-            log.error("Error retrieving Imgur client ID", e);
+            log.warn("Failed to fetch {}: {}", what, cause.getMessage());
         }
-        
-        return null;
+        else
+        {
+            log.error("Failed to fetch {}", what, cause);
+        }
+        return Optional.empty();
     }
-} 
\ No newline at end of file
+}
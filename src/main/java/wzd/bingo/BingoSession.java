@@ -0,0 +1,251 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Snapshot of the account settings used on every request. Refreshed when the
+ * bingo config changes so hot paths read plain fields instead of going through
+ * the config proxy and re-parsing the team id each time.
+ *
+ * Also acts as the gate for token renewal: while a new token is being
+ * obtained, requests wait on {@link #whenReady()} instead of going out with
+ * a token that is about to be rejected.
+ */
+@Slf4j
+@Singleton
+public class BingoSession
+{
+    public static final int NO_TEAM = -1;
+    public static final long UNKNOWN_EXPIRY = 0;
+
+    private static final CompletableFuture<Void> READY = CompletableFuture.completedFuture(null);
+    private static final Gson GSON = new Gson();
+
+    @Inject
+    private BingoConfig config;
+
+    private volatile Snapshot snapshot;
+    private volatile CompletableFuture<Void> renewal = READY;
+    private volatile long lastServerContact = 0;
+
+    /**
+     * Re-read the account settings from config
+     */
+    public void refresh()
+    {
+        String token = config.jwtToken();
+        snapshot = new Snapshot(config.rsn(), parseTeamId(config.teamId()), token, config.authApiUrl(), parseExpiry(token));
+        log.debug("Refreshed session snapshot for {}", snapshot.rsn);
+    }
+
+    /**
+     * Record that the server accepted a heartbeat or activity submission just now
+     */
+    public void markServerContact()
+    {
+        lastServerContact = System.currentTimeMillis();
+    }
+
+    /**
+     * When the server last saw this client, in epoch milliseconds
+     */
+    public long getLastServerContact()
+    {
+        return lastServerContact;
+    }
+
+    /**
+     * Hold new requests until {@link #endRenewal()} is called
+     * @return false if a renewal is already in progress
+     */
+    public synchronized boolean beginRenewal()
+    {
+        if (!renewal.isDone())
+        {
+            return false;
+        }
+        renewal = new CompletableFuture<>();
+        return true;
+    }
+
+    /**
+     * Pick up the renewed token and release every request held by the gate
+     */
+    public synchronized void endRenewal()
+    {
+        refresh();
+        renewal.complete(null);
+    }
+
+    public boolean isRenewing()
+    {
+        return !renewal.isDone();
+    }
+
+    /**
+     * Completes once no token renewal is in progress; already complete in the common case
+     */
+    public CompletableFuture<Void> whenReady()
+    {
+        return renewal;
+    }
+
+    /**
+     * Block a background thread until any renewal finishes
+     * @return false if the renewal did not finish within the timeout
+     */
+    public boolean awaitReady(long timeout, TimeUnit unit)
+    {
+        try
+        {
+            renewal.get(timeout, unit);
+            return true;
+        }
+        catch (TimeoutException | ExecutionException e)
+        {
+            return false;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Read the exp claim (seconds) from a JWT without verifying it
+     * @return Expiry in epoch milliseconds, or UNKNOWN_EXPIRY if absent or unreadable
+     */
+    static long parseExpiry(String token)
+    {
+        if (token == null || token.isEmpty())
+        {
+            return UNKNOWN_EXPIRY;
+        }
+
+        String[] parts = token.split("\\.");
+        if (parts.length < 2)
+        {
+            return UNKNOWN_EXPIRY;
+        }
+
+        try
+        {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonObject claims = GSON.fromJson(payload, JsonObject.class);
+            if (claims != null && claims.has("exp") && !claims.get("exp").isJsonNull())
+            {
+                return claims.get("exp").getAsLong() * 1000;
+            }
+        }
+        catch (Exception e)
+        {
+            log.debug("Could not read expiry from JWT: {}", e.getMessage());
+        }
+        return UNKNOWN_EXPIRY;
+    }
+
+    /**
+     * Current snapshot, taken from config on first use if nothing has refreshed it yet
+     */
+    public Snapshot get()
+    {
+        Snapshot current = snapshot;
+        if (current == null)
+        {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static int parseTeamId(String teamId)
+    {
+        if (teamId == null || teamId.isEmpty())
+        {
+            return NO_TEAM;
+        }
+
+        try
+        {
+            return Integer.parseInt(teamId.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            log.warn("Ignoring non-numeric team id: {}", teamId);
+            return NO_TEAM;
+        }
+    }
+
+    public static class Snapshot
+    {
+        private final String rsn;
+        private final int teamId;
+        private final String jwtToken;
+        private final String authorizationHeader;
+        private final String authApiUrl;
+        private final long tokenExpiresAt;
+
+        Snapshot(String rsn, int teamId, String jwtToken, String authApiUrl, long tokenExpiresAt)
+        {
+            this.rsn = rsn;
+            this.teamId = teamId;
+            this.jwtToken = jwtToken;
+            this.authorizationHeader = "Bearer " + jwtToken;
+            this.authApiUrl = authApiUrl;
+            this.tokenExpiresAt = tokenExpiresAt;
+        }
+
+        public String getRsn()
+        {
+            return rsn;
+        }
+
+        public int getTeamId()
+        {
+            return teamId;
+        }
+
+        public boolean hasTeam()
+        {
+            return teamId != NO_TEAM;
+        }
+
+        public String getJwtToken()
+        {
+            return jwtToken;
+        }
+
+        /**
+         * Prebuilt "Bearer &lt;token&gt;" header value
+         */
+        public String getAuthorizationHeader()
+        {
+            return authorizationHeader;
+        }
+
+        public String getAuthApiUrl()
+        {
+            return authApiUrl;
+        }
+
+        /**
+         * Token expiry in epoch milliseconds, or UNKNOWN_EXPIRY when the token carries no exp claim
+         */
+        public long getTokenExpiresAt()
+        {
+            return tokenExpiresAt;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Per-endpoint circuit breaker. After enough consecutive failures the circuit
+ * opens and calls fail fast without touching the network. Once the open period
+ * has passed a single probe is let through (half-open); its outcome closes the
+ * circuit or opens it again for twice as long, up to a cap.
+ */
+@Slf4j
+public class CircuitBreaker
+{
+    public enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_OPEN_MS = 15_000;
+    private static final long MAX_OPEN_MS = 5 * 60_000;
+
+    private final String endpoint;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private long openDurationMs = BASE_OPEN_MS;
+
+    public CircuitBreaker(String endpoint)
+    {
+        this(endpoint, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(String endpoint, LongSupplier clock)
+    {
+        this.endpoint = endpoint;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether a call may go out now. In the half-open state only the first
+     * caller gets through as the probe.
+     */
+    public synchronized boolean allowRequest()
+    {
+        switch (state)
+        {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() >= openUntil)
+                {
+                    state = State.HALF_OPEN;
+                    log.debug("Circuit for {} half-open, sending probe", endpoint);
+                    return true;
+                }
+                return false;
+            default:
+                // Probe already in flight
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess()
+    {
+        if (state != State.CLOSED)
+        {
+            log.info("Circuit for {} closed", endpoint);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openDurationMs = BASE_OPEN_MS;
+    }
+
+    public synchronized void recordFailure()
+    {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN)
+        {
+            openDurationMs = Math.min(MAX_OPEN_MS, openDurationMs * 2);
+            open();
+        }
+        else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD)
+        {
+            open();
+        }
+    }
+
+    /**
+     * Give back a call that never reached the server, e.g. one that failed to
+     * serialize. A half-open probe slot becomes free again without the outcome
+     * closing or reopening the circuit.
+     */
+    public synchronized void releaseProbe()
+    {
+        if (state == State.HALF_OPEN)
+        {
+            state = State.OPEN;
+            openUntil = clock.getAsLong();
+        }
+    }
+
+    /**
+     * Milliseconds until a probe will be allowed, zero if calls may go out now
+     */
+    public synchronized long getRemainingOpenMs()
+    {
+        return state == State.OPEN ? Math.max(0, openUntil - clock.getAsLong()) : 0;
+    }
+
+    public synchronized State getState()
+    {
+        return state;
+    }
+
+    public String getEndpoint()
+    {
+        return endpoint;
+    }
+
+    private void open()
+    {
+        state = State.OPEN;
+        openUntil = clock.getAsLong() + openDurationMs;
+        log.warn("Circuit for {} opened after {} consecutive failures, failing fast for {}s",
+            endpoint, consecutiveFailures, openDurationMs / 1000);
+    }
+}
@@ -0,0 +1,55 @@
+package wzd.bingo;
+
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link CircuitBreaker} per API endpoint, shared by every caller so a dead
+ * endpoint is detected once rather than per request path.
+ */
+@Singleton
+public class CircuitBreakers
+{
+    private static final int ENDPOINT_SEGMENTS = 3;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Breaker for the endpoint a request belongs to. Ids and query strings are
+     * dropped, so GET /api/bingo/board/Zezima and /api/bingo/board/Lynx share one,
+     * while reads and batch posts under /api/bingo/activity stay separate.
+     */
+    public CircuitBreaker forRequest(String method, String path)
+    {
+        return breakers.computeIfAbsent(method + " " + endpointOf(path), CircuitBreaker::new);
+    }
+
+    /**
+     * Reset every breaker, e.g. after the API URL changes
+     */
+    public void clear()
+    {
+        breakers.clear();
+    }
+
+    static String endpointOf(String path)
+    {
+        int query = path.indexOf('?');
+        if (query >= 0)
+        {
+            path = path.substring(0, query);
+        }
+
+        // Keep the first few segments ("/api/bingo/board") which name the endpoint
+        int segments = 0;
+        for (int i = 0; i < path.length(); i++)
+        {
+            if (path.charAt(i) == '/' && i > 0 && ++segments == ENDPOINT_SEGMENTS)
+            {
+                return path.substring(0, i);
+            }
+        }
+        return path;
+    }
+}
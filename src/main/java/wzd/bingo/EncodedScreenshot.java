@@ -0,0 +1,65 @@
+package wzd.bingo;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+
+/**
+ * A screenshot encoded exactly once. The same bytes are written to disk and
+ * streamed to the uploader so the image is never re-encoded or base64'd.
+ */
+public class EncodedScreenshot
+{
+    private final byte[] data;
+    private final ScreenshotFormat format;
+    private final int width;
+    private final int height;
+
+    public EncodedScreenshot(byte[] data, ScreenshotFormat format, int width, int height)
+    {
+        this.data = data;
+        this.format = format;
+        this.width = width;
+        this.height = height;
+    }
+
+    public byte[] getData()
+    {
+        return data;
+    }
+
+    /**
+     * File extension for saved files and upload part names, e.g. "jpg"
+     */
+    public String getExtension()
+    {
+        return format.getExtension();
+    }
+
+    public String getMimeType()
+    {
+        return "image/" + format.getImageIoName();
+    }
+
+    public int getWidth()
+    {
+        return width;
+    }
+
+    public int getHeight()
+    {
+        return height;
+    }
+
+    public int getSize()
+    {
+        return data.length;
+    }
+
+    /**
+     * Request body that writes the encoded bytes straight to the socket without copying
+     */
+    public RequestBody toRequestBody()
+    {
+        return RequestBody.create(MediaType.get(getMimeType()), data);
+    }
+}
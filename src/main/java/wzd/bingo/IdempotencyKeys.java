@@ -0,0 +1,118 @@
+package wzd.bingo;
+
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stable keys that let the server recognise a repeated submission, plus a
+ * bounded window of keys the server has already accepted so the client does
+ * not resend them. A key is generated once when the activity is detected and
+ * travels with it through batching, retries and spool replay.
+ *
+ * Keys are the first 96 bits of a SHA-256 over the identifying fields, encoded
+ * as 16 url-safe characters.
+ */
+@Singleton
+public class IdempotencyKeys
+{
+    private static final int KEY_BYTES = 12;
+    private static final int ACCEPTED_WINDOW = 4096;
+
+    // Seeded from the clock so sequence numbers never repeat across sessions
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis());
+
+    private final Map<String, Boolean> accepted = new LinkedHashMap<String, Boolean>(ACCEPTED_WINDOW, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest)
+        {
+            return size() > ACCEPTED_WINDOW;
+        }
+    };
+
+    /**
+     * Key for an activity detected on the given game tick. The sequence number
+     * separates several activities from the same NPC on one tick, such as
+     * multiple drops.
+     */
+    public String forActivity(String eventId, String rsn, String activityType, int npcId, int tick)
+    {
+        return derive(eventId, rsn, activityType, Integer.toString(npcId), Integer.toString(tick),
+            Long.toString(sequence.getAndIncrement()));
+    }
+
+    /**
+     * Key for a raid completion. The game's completion count identifies the run,
+     * so the key is the same however often the completion is reported.
+     */
+    public String forRaidCompletion(String eventId, String rsn, String raidName, int completionCount)
+    {
+        return derive("RAID", eventId, rsn, raidName, Integer.toString(completionCount));
+    }
+
+    /**
+     * Key for one tile completion submission
+     */
+    public String forTileSubmission(String rsn, String tileId, String method)
+    {
+        return derive("TILE", rsn, tileId, method, Long.toString(sequence.getAndIncrement()));
+    }
+
+    /**
+     * Key for a spool record written before keys existed, stable across replays
+     */
+    public String forLegacySpoolRecord(String eventId, long spoolId)
+    {
+        return derive("SPOOL", eventId, Long.toString(spoolId));
+    }
+
+    /**
+     * Whether the server has already accepted a submission with this key
+     */
+    public synchronized boolean isAccepted(String key)
+    {
+        return key != null && accepted.get(key) != null;
+    }
+
+    public synchronized void markAccepted(Collection<String> keys)
+    {
+        for (String key : keys)
+        {
+            accepted.put(key, Boolean.TRUE);
+        }
+    }
+
+    private static String derive(String... parts)
+    {
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts)
+            {
+                if (part != null)
+                {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                // Separator so ("ab", "c") and ("a", "bc") differ
+                digest.update((byte) 0);
+            }
+
+            byte[] hash = digest.digest();
+            byte[] key = new byte[KEY_BYTES];
+            System.arraycopy(hash, 0, key, 0, KEY_BYTES);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
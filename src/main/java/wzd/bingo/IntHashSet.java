@@ -0,0 +1,158 @@
+package wzd.bingo;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing set of non-negative ints. Lookups never box or allocate,
+ * which keeps per-loot-event checks on the client thread cheap.
+ */
+public class IntHashSet
+{
+    private static final int FREE = -1;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] table;
+    private int size;
+
+    public IntHashSet()
+    {
+        this(16);
+    }
+
+    public IntHashSet(int expectedSize)
+    {
+        table = newTable(tableSizeFor(expectedSize));
+    }
+
+    public static IntHashSet of(int... values)
+    {
+        IntHashSet set = new IntHashSet(values.length);
+        for (int value : values)
+        {
+            set.add(value);
+        }
+        return set;
+    }
+
+    /**
+     * Add a value. Returns false if it was already present.
+     */
+    public boolean add(int value)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException("IntHashSet only holds non-negative values: " + value);
+        }
+
+        if (size + 1 > table.length * LOAD_FACTOR)
+        {
+            rehash(table.length << 1);
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != FREE)
+        {
+            if (table[slot] == value)
+            {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(int value)
+    {
+        if (value < 0)
+        {
+            return false;
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        int current;
+        while ((current = table[slot]) != FREE)
+        {
+            if (current == value)
+            {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void addAll(int... values)
+    {
+        for (int value : values)
+        {
+            add(value);
+        }
+    }
+
+    public void addRange(int fromInclusive, int toInclusive)
+    {
+        for (int value = fromInclusive; value <= toInclusive; value++)
+        {
+            add(value);
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(table, FREE);
+        size = 0;
+    }
+
+    private void rehash(int capacity)
+    {
+        int[] old = table;
+        table = newTable(capacity);
+        size = 0;
+        for (int value : old)
+        {
+            if (value != FREE)
+            {
+                add(value);
+            }
+        }
+    }
+
+    private static int[] newTable(int capacity)
+    {
+        int[] table = new int[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+
+    private static int tableSizeFor(int expectedSize)
+    {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize)
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int value)
+    {
+        // Ids are clustered, so spread them before masking
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,154 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.ItemComposition;
+import net.runelite.client.game.ItemManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item valuation filled lazily on first sight. Names and rare/pet flags
+ * never change, so only the price is refreshed once it is older than the
+ * refresh interval or the configured price source changes.
+ *
+ * Only used from the client thread.
+ */
+@Slf4j
+@Singleton
+public class ItemValuationCache
+{
+    private static final long PRICE_REFRESH_MS = TimeUnit.MINUTES.toMillis(30);
+
+    @Inject
+    private ItemManager itemManager;
+
+    @Inject
+    private BingoConfig config;
+
+    @Inject
+    private LootClassifier lootClassifier;
+
+    private final Map<Integer, ItemValuation> valuations = new HashMap<>();
+
+    /**
+     * Look up the valuation for an item, loading or repricing it if needed.
+     * Returns null if the item has no definition.
+     */
+    public ItemValuation get(int itemId)
+    {
+        ItemValuation valuation = valuations.get(itemId);
+        PriceSource source = config.priceSource();
+        long now = System.currentTimeMillis();
+
+        if (valuation == null)
+        {
+            ItemComposition itemDef = itemManager.getItemComposition(itemId);
+            if (itemDef == null)
+            {
+                return null;
+            }
+
+            String name = itemDef.getName();
+            valuation = new ItemValuation(itemId, name,
+                lootClassifier.isRareItem(itemId, name),
+                lootClassifier.isPet(itemId, name));
+            valuation.reprice(lookupPrice(itemId, itemDef, source), source, now);
+            valuations.put(itemId, valuation);
+        }
+        else if (valuation.priceSource != source || now - valuation.pricedAt > PRICE_REFRESH_MS)
+        {
+            valuation.reprice(lookupPrice(itemId, null, source), source, now);
+        }
+
+        return valuation;
+    }
+
+    /**
+     * Whether a stack of this item passes the configured value threshold or is a rare or pet
+     */
+    public boolean isValuable(ItemValuation valuation, int quantity)
+    {
+        return valuation.rare
+            || valuation.pet
+            || (long) valuation.price * quantity > config.valuableDropThreshold();
+    }
+
+    private int lookupPrice(int itemId, ItemComposition itemDef, PriceSource source)
+    {
+        // Noted drops share the price of the unnoted item
+        int canonicalId = itemManager.canonicalize(itemId);
+        switch (source)
+        {
+            case GRAND_EXCHANGE:
+                return itemManager.getItemPrice(canonicalId);
+            case HIGH_ALCHEMY:
+                return composition(canonicalId, itemId, itemDef).getHaPrice();
+            case STORE:
+            default:
+                return composition(canonicalId, itemId, itemDef).getPrice();
+        }
+    }
+
+    private ItemComposition composition(int canonicalId, int itemId, ItemComposition itemDef)
+    {
+        return itemDef != null && canonicalId == itemId ? itemDef : itemManager.getItemComposition(canonicalId);
+    }
+
+    /**
+     * Cached name, price and classification for a single item id
+     */
+    public static class ItemValuation
+    {
+        private final int itemId;
+        private final String name;
+        private final boolean rare;
+        private final boolean pet;
+        private int price;
+        private PriceSource priceSource;
+        private long pricedAt;
+
+        ItemValuation(int itemId, String name, boolean rare, boolean pet)
+        {
+            this.itemId = itemId;
+            this.name = name;
+            this.rare = rare;
+            this.pet = pet;
+        }
+
+        private void reprice(int price, PriceSource priceSource, long pricedAt)
+        {
+            this.price = price;
+            this.priceSource = priceSource;
+            this.pricedAt = pricedAt;
+        }
+
+        public int getItemId()
+        {
+            return itemId;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public boolean isRare()
+        {
+            return rare;
+        }
+
+        public boolean isPet()
+        {
+            return pet;
+        }
+
+        public int getPrice()
+        {
+            return price;
+        }
+    }
+}
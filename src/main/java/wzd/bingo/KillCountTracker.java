@@ -0,0 +1,318 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authoritative kill counts read from the game's own chat messages, e.g.
+ * "Your Vorkath kill count is: 123." and "Your completed Chambers of Xeric
+ * count is: 45.". Counts are kept per boss for the current event and saved
+ * to ~/.runelite/bingo/&lt;eventId&gt;/killcount.json so totals survive restarts.
+ *
+ * Counts are keyed by the name chat uses, which is not always the NPC name
+ * activities carry ("Nightmare" for The Nightmare, the raid name for its final
+ * boss). Lookups go through an alias table for those. Where one NPC ends
+ * several variants, such as raid modes, the variant reported most recently wins.
+ *
+ * Parsing happens on the client thread; lookups come from the io pool.
+ */
+@Slf4j
+@Singleton
+public class KillCountTracker
+{
+    public static final int UNKNOWN = -1;
+
+    private static final Pattern RAID_COUNT = Pattern.compile("Your completed (.+) count is: ?([\\d,]+)");
+    private static final Pattern KILL_COUNT = Pattern.compile("Your (.+) (?:kill|chest|completion|harvest|success) count is: ?([\\d,]+)");
+    private static final String KC_FILE = "killcount.json";
+    private static final long SAVE_DELAY_MS = 5000;
+
+    // NPC name -> names chat reports the count under, lower case
+    private static final Map<String, List<String>> CHAT_NAMES = new HashMap<>();
+
+    static
+    {
+        alias("The Nightmare", "Nightmare");
+        alias("Dusk", "Grotesque Guardians");
+        alias("Dawn", "Grotesque Guardians");
+        alias("Crystalline Hunllef", "Gauntlet");
+        alias("Corrupted Hunllef", "Corrupted Gauntlet");
+        alias("Great Olm", "Chambers of Xeric", "Chambers of Xeric Challenge Mode");
+        alias("Verzik Vitur", "Theatre of Blood", "Theatre of Blood: Hard Mode", "Theatre of Blood: Entry Mode");
+        alias("Tumeken's Warden", "Tombs of Amascut", "Tombs of Amascut: Expert Mode", "Tombs of Amascut: Entry Mode");
+        alias("Elidinis' Warden", "Tombs of Amascut", "Tombs of Amascut: Expert Mode", "Tombs of Amascut: Entry Mode");
+        // Dagannoth Rex, Prime and Supreme each keep their own count under their NPC name
+    }
+
+    @Inject
+    private BingoExecutors executors;
+
+    private final Gson gson = new Gson();
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+    // Order counts were read from chat this session, to pick between variants of one NPC
+    private final Map<String, Long> reportedAt = new ConcurrentHashMap<>();
+    private final AtomicLong reports = new AtomicLong();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    private volatile String eventId;
+
+    public KillCountTracker()
+    {
+    }
+
+    KillCountTracker(BingoExecutors executors)
+    {
+        this.executors = executors;
+    }
+
+    /**
+     * Switch to an event, saving the previous event's counts and loading the new one's
+     */
+    public void setEvent(String newEventId)
+    {
+        String previous = eventId;
+        if (previous != null && previous.equals(newEventId))
+        {
+            return;
+        }
+
+        if (previous != null)
+        {
+            Map<String, Integer> snapshot = new ConcurrentHashMap<>(counts);
+            runOnIo(() -> save(previous, snapshot));
+        }
+
+        counts.clear();
+        reportedAt.clear();
+        eventId = newEventId;
+        if (newEventId != null)
+        {
+            runOnIo(() -> load(newEventId));
+        }
+    }
+
+    /**
+     * Read a game message and record the count it reports, if any
+     * @return true if the message carried a kill count
+     */
+    public boolean onGameMessage(String message)
+    {
+        if (eventId == null || message == null)
+        {
+            return false;
+        }
+
+        String text = Text.removeTags(message);
+        Matcher matcher = RAID_COUNT.matcher(text);
+        if (!matcher.find())
+        {
+            matcher = KILL_COUNT.matcher(text);
+            if (!matcher.find())
+            {
+                return false;
+            }
+        }
+
+        String name = matcher.group(1);
+        int killCount;
+        try
+        {
+            killCount = Integer.parseInt(matcher.group(2).replace(",", ""));
+        }
+        catch (NumberFormatException e)
+        {
+            return false;
+        }
+
+        String key = key(name);
+        counts.put(key, killCount);
+        reportedAt.put(key, reports.incrementAndGet());
+        log.debug("Kill count for {} is now {}", name, killCount);
+        scheduleSave();
+        return true;
+    }
+
+    /**
+     * Latest kill count seen in chat for a boss or raid in the given event, or UNKNOWN
+     * @param name NPC name or the name chat uses, e.g. "The Nightmare" or "Nightmare"
+     */
+    public int get(String forEventId, String name)
+    {
+        if (name == null || forEventId == null || !forEventId.equals(eventId))
+        {
+            return UNKNOWN;
+        }
+
+        String key = key(name);
+        Integer killCount = counts.get(key);
+        if (killCount != null)
+        {
+            return killCount;
+        }
+
+        int latest = UNKNOWN;
+        long latestReport = -1;
+        for (String chatName : CHAT_NAMES.getOrDefault(key, Collections.emptyList()))
+        {
+            Integer count = counts.get(chatName);
+            // Counts loaded from disk have no report order and rank behind this session's
+            long report = reportedAt.getOrDefault(chatName, 0L);
+            if (count != null && report > latestReport)
+            {
+                latest = count;
+                latestReport = report;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Queue a write of the current counts on the io pool, e.g. on plugin shutdown
+     * before the executors drain. Never blocks the caller.
+     */
+    public void flush()
+    {
+        String current = eventId;
+        if (current != null)
+        {
+            Map<String, Integer> snapshot = new ConcurrentHashMap<>(counts);
+            runOnIo(() -> save(current, snapshot));
+        }
+    }
+
+    private void scheduleSave()
+    {
+        if (!saveScheduled.compareAndSet(false, true))
+        {
+            return;
+        }
+
+        try
+        {
+            executors.scheduler().schedule(() -> runOnIo(() -> {
+                saveScheduled.set(false);
+                String current = eventId;
+                if (current != null)
+                {
+                    save(current, counts);
+                }
+            }), SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            saveScheduled.set(false);
+        }
+    }
+
+    private void runOnIo(Runnable task)
+    {
+        try
+        {
+            executors.io().execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            log.debug("Skipped kill count file update - io pool busy or shut down");
+        }
+    }
+
+    private void load(String forEventId)
+    {
+        Path file = getFile(forEventId);
+        if (!Files.exists(file))
+        {
+            return;
+        }
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            JsonObject stored = gson.fromJson(reader, JsonObject.class);
+            if (stored == null || !forEventId.equals(eventId))
+            {
+                return;
+            }
+
+            // Counts read from chat since the switch are newer than anything on disk
+            for (Map.Entry<String, JsonElement> entry : stored.entrySet())
+            {
+                counts.putIfAbsent(entry.getKey(), entry.getValue().getAsInt());
+            }
+            log.debug("Loaded {} kill counts for event {}", stored.size(), forEventId);
+        }
+        catch (Exception e)
+        {
+            log.warn("Failed to read kill counts for event {}", forEventId, e);
+        }
+    }
+
+    private synchronized void save(String forEventId, Map<String, Integer> snapshot)
+    {
+        if (snapshot.isEmpty())
+        {
+            return;
+        }
+
+        Path file = getFile(forEventId);
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Path tempFile = file.resolveSibling(KC_FILE + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8))
+            {
+                gson.toJson(snapshot, writer);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e)
+        {
+            log.error("Failed to save kill counts for event {}", forEventId, e);
+        }
+    }
+
+    private static void alias(String npcName, String... chatNames)
+    {
+        List<String> keys = new ArrayList<>();
+        for (String chatName : chatNames)
+        {
+            keys.add(key(chatName));
+        }
+        CHAT_NAMES.put(key(npcName), keys);
+    }
+
+    private static String key(String name)
+    {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Path getFile(String forEventId)
+    {
+        return Paths.get(System.getProperty("user.home"), ".runelite", "bingo", forEventId, KC_FILE);
+    }
+}
@@ -0,0 +1,195 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+
+/**
+ * Classifies NPCs and items by id for loot handling. Known ids are seeded into
+ * primitive sets up front; any other id is classified by name the first time it
+ * is seen and the result cached, so repeat checks are a single set lookup.
+ *
+ * Only used from the client thread.
+ */
+@Slf4j
+@Singleton
+public class LootClassifier
+{
+    private static final int[] RAID_NPC_IDS = {
+        8360, 8361, 8362, 8363, 8364, 8365,             // The Maiden of Sugadinti
+        8338, 8339, 8340, 8341,                         // Xarpus
+        8369, 8370, 8371, 8372, 8373, 8374, 8375,       // Verzik Vitur
+        7551, 7554                                      // Great Olm
+    };
+
+    private static final int[] BOSS_NPC_IDS = {
+        239,                                            // King Black Dragon
+        319,                                            // Corporeal Beast
+        2205,                                           // Commander Zilyana
+        2215,                                           // General Graardor
+        3162,                                           // Kree'arra
+        3129,                                           // K'ril Tsutsaroth
+        963, 965,                                       // Kalphite Queen
+        2054,                                           // Chaos Elemental
+        2042, 2043, 2044,                               // Zulrah
+        8059, 8061,                                     // Vorkath
+        8615, 8616, 8617, 8618, 8619, 8620, 8621, 8622, // Alchemical Hydra
+        9425, 9426, 9427, 9428, 9429, 9430, 9431, 9432, 9433, // The Nightmare
+        5862, 5863, 5866,                               // Cerberus
+        5886, 5887, 5888, 5889, 5890, 5891,             // Abyssal Sire
+        494,                                            // Kraken
+        499,                                            // Thermonuclear Smoke Devil
+        2265, 2266, 2267                                // Dagannoth Kings
+    };
+
+    private static final int[] RARE_ITEM_IDS = {
+        13576,                                          // Dragon warhammer
+        20997,                                          // Twisted bow
+        22325, 22486,                                   // Scythe of vitur
+        22324,                                          // Ghrazi rapier
+        22477,                                          // Avernic defender hilt
+        13227, 13229, 13231,                            // Eternal, pegasian and primordial crystals
+        11810, 11812, 11814, 11816,                     // Godsword hilts
+        12819, 12823, 12827                             // Elysian, spectral and arcane sigils
+    };
+
+    private static final int[] PET_ITEM_IDS = {
+        11995,                                          // Pet chaos elemental
+        12643, 12644, 12645,                            // Dagannoth pets
+        12646, 12647, 12648, 12649, 12650, 12651, 12652, 12653, 12654, 12655, // GWD, KBD, KQ and slayer boss pets
+        12816,                                          // Pet dark core
+        12921,                                          // Pet snakeling
+        13247,                                          // Hellpuppy
+        13262,                                          // Abyssal orphan
+        20851,                                          // Olmlet
+        21992,                                          // Vorki
+        22473,                                          // Lil' zik
+        22746,                                          // Ikkle hydra
+        24491                                           // Little nightmare
+    };
+
+    private static final String[] RAID_NAME_FRAGMENTS = {
+        "Maiden of Sugadinti", "Xarpus", "Verzik Vitur", "Great Olm", "Warden", "Tumeken"
+    };
+
+    private static final String[] BOSS_NAMES = {
+        "King Black Dragon", "Corporeal Beast", "Commander Zilyana", "General Graardor", "Kree'arra",
+        "K'ril Tsutsaroth", "Kalphite Queen", "Chaos Elemental", "Zulrah", "Vorkath", "Alchemical Hydra",
+        "The Nightmare", "Phosani's Nightmare", "Cerberus", "Abyssal Sire", "Kraken", "Thermonuclear Smoke Devil"
+    };
+
+    private static final String[] RARE_ITEM_NAME_FRAGMENTS = {
+        "Dragon warhammer", "Twisted bow", "Scythe", "Rapier", "Avernic", "Primordial", "Eternal", "Pegasian",
+        "Armadyl", "Bandos", "Zamorak", "Saradomin", "Elysian", "Spectral", "Arcane"
+    };
+
+    private static final String[] PET_NAME_FRAGMENTS = {
+        "pet", "puppy", "kitten", "heron", "beaver", "squirrel"
+    };
+
+    private final IntHashSet raidNpcs = IntHashSet.of(RAID_NPC_IDS);
+    private final IntHashSet bossNpcs = IntHashSet.of(BOSS_NPC_IDS);
+    private final IntHashSet rareItems = IntHashSet.of(RARE_ITEM_IDS);
+    private final IntHashSet petItems = IntHashSet.of(PET_ITEM_IDS);
+
+    // Every id whose category is settled, whether seeded or resolved by name
+    private final IntHashSet classifiedNpcs = new IntHashSet(256);
+    private final IntHashSet classifiedItems = new IntHashSet(1024);
+
+    public LootClassifier()
+    {
+        classifiedNpcs.addAll(RAID_NPC_IDS);
+        classifiedNpcs.addAll(BOSS_NPC_IDS);
+        classifiedItems.addAll(RARE_ITEM_IDS);
+        classifiedItems.addAll(PET_ITEM_IDS);
+    }
+
+    /**
+     * Whether this NPC is a raid room boss. Its loot does not mark the end of the
+     * raid; completions come from chat via {@link RaidCompletionTracker}.
+     */
+    public boolean isRaidBoss(int npcId, String npcName)
+    {
+        classifyNpc(npcId, npcName);
+        return raidNpcs.contains(npcId);
+    }
+
+    public boolean isBoss(int npcId, String npcName)
+    {
+        classifyNpc(npcId, npcName);
+        return bossNpcs.contains(npcId);
+    }
+
+    public boolean isRareItem(int itemId, String itemName)
+    {
+        classifyItem(itemId, itemName);
+        return rareItems.contains(itemId);
+    }
+
+    public boolean isPet(int itemId, String itemName)
+    {
+        classifyItem(itemId, itemName);
+        return petItems.contains(itemId);
+    }
+
+    private void classifyNpc(int npcId, String npcName)
+    {
+        if (classifiedNpcs.contains(npcId) || npcName == null)
+        {
+            return;
+        }
+
+        if (containsAny(npcName, RAID_NAME_FRAGMENTS))
+        {
+            raidNpcs.add(npcId);
+        }
+        else if (equalsAny(npcName, BOSS_NAMES) || npcName.contains("Dagannoth"))
+        {
+            bossNpcs.add(npcId);
+        }
+        classifiedNpcs.add(npcId);
+        log.debug("Classified npc {} ({}) by name", npcId, npcName);
+    }
+
+    private void classifyItem(int itemId, String itemName)
+    {
+        if (classifiedItems.contains(itemId) || itemName == null)
+        {
+            return;
+        }
+
+        if (containsAny(itemName, RARE_ITEM_NAME_FRAGMENTS))
+        {
+            rareItems.add(itemId);
+        }
+        if (containsAny(itemName.toLowerCase(), PET_NAME_FRAGMENTS))
+        {
+            petItems.add(itemId);
+        }
+        classifiedItems.add(itemId);
+    }
+
+    private static boolean containsAny(String value, String[] fragments)
+    {
+        for (String fragment : fragments)
+        {
+            if (value.contains(fragment))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsAny(String value, String[] names)
+    {
+        for (String name : names)
+        {
+            if (value.equals(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
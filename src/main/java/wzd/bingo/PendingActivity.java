@@ -0,0 +1,174 @@
+package wzd.bingo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single activity waiting in the submission queue. Repeated kills of the
+ * same monster are folded into one record by incrementing its count.
+ */
+public class PendingActivity
+{
+    private final String eventId;
+    private final String activityType;
+    private final String monsterName;
+    private final String dropName;
+    private final String screenshotUrl;
+    private final long createdAt;
+    private final List<Long> spoolIds = new ArrayList<>();
+    private final List<String> idempotencyKeys = new ArrayList<>();
+    private int count;
+    private int attempts;
+    private int durationSeconds;
+    private int teamSize;
+
+    public PendingActivity(String eventId, String activityType, String monsterName, String dropName, String screenshotUrl,
+        String idempotencyKey)
+    {
+        this(eventId, activityType, monsterName, dropName, screenshotUrl, idempotencyKey, System.currentTimeMillis());
+    }
+
+    public PendingActivity(String eventId, String activityType, String monsterName, String dropName, String screenshotUrl,
+        String idempotencyKey, long createdAt)
+    {
+        this.eventId = eventId;
+        this.activityType = activityType;
+        this.monsterName = monsterName;
+        this.dropName = dropName;
+        this.screenshotUrl = screenshotUrl;
+        this.createdAt = createdAt;
+        this.count = 1;
+        if (idempotencyKey != null)
+        {
+            idempotencyKeys.add(idempotencyKey);
+        }
+    }
+
+    /**
+     * Whether repeated entries of this activity can be folded into a single record
+     */
+    public boolean isCoalescable()
+    {
+        return "KILL".equals(activityType) || "BOSS_KILL".equals(activityType);
+    }
+
+    /**
+     * Outbound lane this activity is submitted in
+     */
+    public ActivityPriority getPriority()
+    {
+        return ActivityPriority.forActivityType(activityType);
+    }
+
+    /**
+     * Key used to fold repeated kills of the same monster within one event
+     */
+    public String getCoalesceKey()
+    {
+        return eventId + "|" + activityType + "|" + monsterName;
+    }
+
+    /**
+     * Fold another entry for the same monster into this record
+     */
+    public void merge(PendingActivity other)
+    {
+        count += other.count;
+        spoolIds.addAll(other.spoolIds);
+        idempotencyKeys.addAll(other.idempotencyKeys);
+        // A retried record keeps its spent budget when new kills fold into it
+        attempts = Math.max(attempts, other.attempts);
+    }
+
+    /**
+     * Attach the run time and party size of a raid completion; zero means unknown
+     */
+    public void setRaidDetails(int durationSeconds, int teamSize)
+    {
+        this.durationSeconds = durationSeconds;
+        this.teamSize = teamSize;
+    }
+
+    public int getDurationSeconds()
+    {
+        return durationSeconds;
+    }
+
+    public int getTeamSize()
+    {
+        return teamSize;
+    }
+
+    /**
+     * Count a failed submission of this record
+     * @return Submissions attempted so far
+     */
+    public int recordAttempt()
+    {
+        return ++attempts;
+    }
+
+    public void addSpoolId(long spoolId)
+    {
+        spoolIds.add(spoolId);
+    }
+
+    /**
+     * Spool entries covered by this record, acknowledged together once it is accepted
+     */
+    public List<Long> getSpoolIds()
+    {
+        return spoolIds;
+    }
+
+    /**
+     * One key per detected activity folded into this record, so the server can
+     * count each kill once however the records are regrouped on retry
+     */
+    public List<String> getIdempotencyKeys()
+    {
+        return idempotencyKeys;
+    }
+
+    public String getEventId()
+    {
+        return eventId;
+    }
+
+    public String getActivityType()
+    {
+        return activityType;
+    }
+
+    public String getMonsterName()
+    {
+        return monsterName;
+    }
+
+    public String getDropName()
+    {
+        return dropName;
+    }
+
+    public String getScreenshotUrl()
+    {
+        return screenshotUrl;
+    }
+
+    public long getCreatedAt()
+    {
+        return createdAt;
+    }
+
+    public int getCount()
+    {
+        return count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("PendingActivity{eventId=%s, type=%s, monster='%s', drop='%s', count=%d}",
+            eventId, activityType, monsterName, dropName, count);
+    }
+}
@@ -0,0 +1,24 @@
+package wzd.bingo;
+
+/**
+ * Price used to decide whether a drop is valuable
+ */
+public enum PriceSource
+{
+    GRAND_EXCHANGE("Grand Exchange"),
+    HIGH_ALCHEMY("High Alchemy"),
+    STORE("Store value");
+
+    private final String name;
+
+    PriceSource(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
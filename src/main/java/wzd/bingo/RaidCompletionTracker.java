@@ -0,0 +1,241 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.client.util.Text;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Detects raid completions from the game's end-of-raid chat messages rather
+ * than from boss loot, so a Theatre of Blood run with loot in several rooms
+ * still counts once. The completion count message ("Your completed Theatre of
+ * Blood count is: 12.") marks the end of a raid; the duration and team size
+ * messages that precede it are remembered for a short window and attached.
+ *
+ * Each completion is identified by raid name and completion count, so a
+ * repeated message for the same run is ignored.
+ *
+ * Only used from the client thread.
+ */
+@Slf4j
+@Singleton
+public class RaidCompletionTracker
+{
+    public static final int UNKNOWN = 0;
+
+    private static final Pattern COMPLETION_COUNT = Pattern.compile("Your completed (.+) count is: ?([\\d,]+)");
+    // CoX: "Congratulations - your raid is complete! Team size: 3 players Duration: 25:34 ..."
+    private static final Pattern RAID_COMPLETE = Pattern.compile("your raid is complete!", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COX_TEAM_SIZE = Pattern.compile("Team size: ?(Solo|\\d+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COX_DURATION = Pattern.compile("Duration: ?(\\d+(?::\\d+)+(?:\\.\\d+)?)", Pattern.CASE_INSENSITIVE);
+    // ToB and ToA: "... total completion time: 21:34.20" (room messages only report a room Duration)
+    private static final Pattern TOTAL_TIME = Pattern.compile("completion time: ?(\\d+(?::\\d+)+(?:\\.\\d+)?)", Pattern.CASE_INSENSITIVE);
+
+    // Party orb and member health varbits; a non-zero value means the slot is occupied
+    private static final int[] TOB_PARTY_VARBITS = {6442, 6443, 6444, 6445, 6446};
+    private static final int[] TOA_PARTY_VARBITS = {14345, 14346, 14347, 14348, 14349, 14350, 14351, 14352};
+
+    private static final int DETAILS_WINDOW_TICKS = 100;
+    private static final int RECENT_COMPLETIONS = 16;
+
+    @Inject
+    private Client client;
+
+    private int durationSeconds = UNKNOWN;
+    private int teamSize = UNKNOWN;
+    private int detailsTick = -1;
+
+    private final Set<String> recentCompletions = new LinkedHashSet<>();
+
+    public RaidCompletionTracker()
+    {
+    }
+
+    RaidCompletionTracker(Client client)
+    {
+        this.client = client;
+    }
+
+    /**
+     * Read a game message
+     * @return The completed raid if this message ends a raid not already reported, otherwise null
+     */
+    public RaidCompletion onGameMessage(String message, int tick)
+    {
+        if (message == null)
+        {
+            return null;
+        }
+
+        String text = Text.removeTags(message);
+
+        Matcher completion = COMPLETION_COUNT.matcher(text);
+        if (completion.find())
+        {
+            return complete(completion.group(1).trim(), completion.group(2), tick);
+        }
+
+        if (RAID_COMPLETE.matcher(text).find())
+        {
+            Matcher team = COX_TEAM_SIZE.matcher(text);
+            if (team.find())
+            {
+                teamSize = "solo".equalsIgnoreCase(team.group(1)) ? 1 : Integer.parseInt(team.group(1));
+            }
+            Matcher duration = COX_DURATION.matcher(text);
+            if (duration.find())
+            {
+                durationSeconds = parseDuration(duration.group(1));
+            }
+            detailsTick = tick;
+            return null;
+        }
+
+        Matcher total = TOTAL_TIME.matcher(text);
+        if (total.find())
+        {
+            durationSeconds = parseDuration(total.group(1));
+            detailsTick = tick;
+        }
+        return null;
+    }
+
+    private RaidCompletion complete(String raidName, String countText, int tick)
+    {
+        int completionCount;
+        try
+        {
+            completionCount = Integer.parseInt(countText.replace(",", ""));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+
+        String instance = raidName + "|" + completionCount;
+        if (!recentCompletions.add(instance))
+        {
+            log.debug("Ignoring repeated completion message for {} #{}", raidName, completionCount);
+            return null;
+        }
+        if (recentCompletions.size() > RECENT_COMPLETIONS)
+        {
+            recentCompletions.remove(recentCompletions.iterator().next());
+        }
+
+        boolean detailsFresh = detailsTick >= 0 && tick - detailsTick <= DETAILS_WINDOW_TICKS;
+        int duration = detailsFresh ? durationSeconds : UNKNOWN;
+        int team = detailsFresh && teamSize != UNKNOWN ? teamSize : partySizeFromVarbits(raidName);
+
+        durationSeconds = UNKNOWN;
+        teamSize = UNKNOWN;
+        detailsTick = -1;
+
+        return new RaidCompletion(raidName, completionCount, duration, team);
+    }
+
+    private int partySizeFromVarbits(String raidName)
+    {
+        if (raidName.startsWith("Theatre of Blood"))
+        {
+            return countOccupied(TOB_PARTY_VARBITS);
+        }
+        if (raidName.startsWith("Tombs of Amascut"))
+        {
+            return countOccupied(TOA_PARTY_VARBITS);
+        }
+        return UNKNOWN;
+    }
+
+    private int countOccupied(int[] varbits)
+    {
+        int occupied = 0;
+        for (int varbit : varbits)
+        {
+            if (client.getVarbitValue(varbit) != 0)
+            {
+                occupied++;
+            }
+        }
+        return occupied;
+    }
+
+    /**
+     * Parse "h:mm:ss", "mm:ss" or "mm:ss.ff" into whole seconds
+     */
+    static int parseDuration(String text)
+    {
+        String[] parts = text.split(":");
+        double seconds = 0;
+        try
+        {
+            for (String part : parts)
+            {
+                seconds = seconds * 60 + Double.parseDouble(part);
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            return UNKNOWN;
+        }
+        return (int) Math.round(seconds);
+    }
+
+    public static class RaidCompletion
+    {
+        private final String raidName;
+        private final int completionCount;
+        private final int durationSeconds;
+        private final int teamSize;
+
+        RaidCompletion(String raidName, int completionCount, int durationSeconds, int teamSize)
+        {
+            this.raidName = raidName;
+            this.completionCount = completionCount;
+            this.durationSeconds = durationSeconds;
+            this.teamSize = teamSize;
+        }
+
+        /**
+         * Raid name as the game reports it, including any mode, e.g. "Theatre of Blood: Hard Mode"
+         */
+        public String getRaidName()
+        {
+            return raidName;
+        }
+
+        public int getCompletionCount()
+        {
+            return completionCount;
+        }
+
+        /**
+         * Run time in seconds, or UNKNOWN
+         */
+        public int getDurationSeconds()
+        {
+            return durationSeconds;
+        }
+
+        /**
+         * Players in the raid, or UNKNOWN
+         */
+        public int getTeamSize()
+        {
+            return teamSize;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("RaidCompletion{raid='%s', count=%d, duration=%ds, team=%d}",
+                raidName, completionCount, durationSeconds, teamSize);
+        }
+    }
+}
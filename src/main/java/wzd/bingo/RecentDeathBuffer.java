@@ -0,0 +1,97 @@
+package wzd.bingo;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring of recent NPC deaths, stored in parallel primitive arrays
+ * so recording and matching never allocate. Entries older than the window are
+ * treated as empty and simply overwritten.
+ *
+ * Only used from the client thread.
+ */
+public class RecentDeathBuffer
+{
+    public static final int NO_MATCH = -1;
+    public static final int ALREADY_CLAIMED = -2;
+
+    private static final int MAX_LOOT_DISTANCE = 4;
+
+    private final int windowTicks;
+    private final int[] npcIndex;
+    private final int[] npcId;
+    private final int[] x;
+    private final int[] y;
+    private final int[] plane;
+    private final int[] tick;
+    private final boolean[] claimed;
+    private int head;
+
+    public RecentDeathBuffer(int capacity, int windowTicks)
+    {
+        this.windowTicks = windowTicks;
+        npcIndex = new int[capacity];
+        npcId = new int[capacity];
+        x = new int[capacity];
+        y = new int[capacity];
+        plane = new int[capacity];
+        tick = new int[capacity];
+        claimed = new boolean[capacity];
+        clear();
+    }
+
+    /**
+     * Record a death, overwriting the oldest entry
+     */
+    public void record(int index, int id, int worldX, int worldY, int worldPlane, int currentTick)
+    {
+        int slot = head;
+        head = (head + 1) % tick.length;
+
+        npcIndex[slot] = index;
+        npcId[slot] = id;
+        x[slot] = worldX;
+        y[slot] = worldY;
+        plane[slot] = worldPlane;
+        tick[slot] = currentTick;
+        claimed[slot] = false;
+    }
+
+    /**
+     * Attribute loot to the most recent matching death within the window and mark
+     * it claimed. Returns the tick of that death, {@link #ALREADY_CLAIMED} if the
+     * death has already produced loot, or {@link #NO_MATCH} if none was tracked.
+     */
+    public int claim(int index, int id, int worldX, int worldY, int worldPlane, int currentTick)
+    {
+        // Walk backwards from the newest entry so respawned NPCs reusing an index match their latest death
+        for (int i = 1; i <= tick.length; i++)
+        {
+            int slot = (head - i + tick.length) % tick.length;
+            if (tick[slot] < 0 || currentTick - tick[slot] > windowTicks)
+            {
+                continue;
+            }
+
+            if (npcIndex[slot] != index || npcId[slot] != id || plane[slot] != worldPlane
+                || Math.abs(x[slot] - worldX) > MAX_LOOT_DISTANCE || Math.abs(y[slot] - worldY) > MAX_LOOT_DISTANCE)
+            {
+                continue;
+            }
+
+            if (claimed[slot])
+            {
+                return ALREADY_CLAIMED;
+            }
+            claimed[slot] = true;
+            return tick[slot];
+        }
+        return NO_MATCH;
+    }
+
+    public void clear()
+    {
+        Arrays.fill(tick, -1);
+        Arrays.fill(claimed, false);
+        head = 0;
+    }
+}
@@ -0,0 +1,98 @@
+package wzd.bingo;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Bounded retries with exponential backoff and full jitter, so clients that
+ * failed together do not come back together. A server supplied Retry-After
+ * is honoured as a lower bound on the delay.
+ */
+public class RetryPolicy
+{
+    public static final long NO_RETRY_AFTER = -1;
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs)
+    {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    /**
+     * Whether another attempt is allowed after the given number of attempts have failed
+     */
+    public boolean canRetry(int attemptsMade)
+    {
+        return attemptsMade < maxAttempts;
+    }
+
+    /**
+     * Delay before the next attempt, or a negative value if the server asked
+     * for a longer wait than this policy is willing to hold a request for
+     * @param attemptsMade Attempts already made, starting at 1
+     * @param retryAfterMs Parsed Retry-After, or NO_RETRY_AFTER
+     */
+    public long delayMs(int attemptsMade, long retryAfterMs)
+    {
+        if (retryAfterMs > maxDelayMs)
+        {
+            return -1;
+        }
+
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attemptsMade - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(jittered, retryAfterMs);
+    }
+
+    public int getMaxAttempts()
+    {
+        return maxAttempts;
+    }
+
+    /**
+     * Status codes worth retrying: timeouts, throttling and server errors
+     */
+    public static boolean isRetryableStatus(int statusCode)
+    {
+        return statusCode == 408 || statusCode == 429 || statusCode >= 500;
+    }
+
+    /**
+     * Parse a Retry-After header given either as delta seconds or as an HTTP date
+     * @return Delay in milliseconds, or NO_RETRY_AFTER if absent or unreadable
+     */
+    public static long parseRetryAfter(String header)
+    {
+        if (header == null || header.trim().isEmpty())
+        {
+            return NO_RETRY_AFTER;
+        }
+
+        String value = header.trim();
+        try
+        {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        }
+        catch (NumberFormatException e)
+        {
+            // Fall through to the date form
+        }
+
+        try
+        {
+            ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+        }
+        catch (Exception e)
+        {
+            return NO_RETRY_AFTER;
+        }
+    }
+}
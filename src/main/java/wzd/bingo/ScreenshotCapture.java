@@ -0,0 +1,200 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Client;
+import net.runelite.api.gameval.InterfaceID;
+import net.runelite.api.widgets.Widget;
+import net.runelite.client.ui.DrawManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Captures the next rendered frame through the client's draw pipeline, which
+ * works with GPU rendering and never races the renderer. The frame listener
+ * only copies the frame into a pooled buffer; encoding happens off-thread.
+ */
+@Slf4j
+@Singleton
+public class ScreenshotCapture
+{
+    private static final long FRAME_TIMEOUT_MS = 2000;
+    private static final int MAX_POOLED_BUFFERS = 2;
+
+    @Inject
+    private Client client;
+
+    @Inject
+    private DrawManager drawManager;
+
+    @Inject
+    private BingoExecutors executors;
+
+    private final Deque<BufferedImage> bufferPool = new ArrayDeque<>();
+
+    /**
+     * Resolve a crop setting to a region in canvas coordinates, or null for the
+     * whole frame. Must be called on the client thread.
+     */
+    public Rectangle cropRegion(ScreenshotCrop crop)
+    {
+        switch (crop)
+        {
+            case GAME_VIEW:
+                if (client.getViewportWidth() > 0 && client.getViewportHeight() > 0)
+                {
+                    return new Rectangle(client.getViewportXOffset(), client.getViewportYOffset(),
+                        client.getViewportWidth(), client.getViewportHeight());
+                }
+                break;
+            case CHATBOX:
+                // Child 0 is the chatbox root, covering the tabs and the message area
+                Widget chatbox = client.getWidget(InterfaceID.CHATBOX, 0);
+                if (chatbox != null && !chatbox.isHidden() && chatbox.getBounds() != null)
+                {
+                    return chatbox.getBounds();
+                }
+                break;
+            default:
+                break;
+        }
+        return null;
+    }
+
+    /**
+     * Request a copy of the next rendered frame, limited to the given canvas region
+     * when one is set. Completes exceptionally with a TimeoutException if no frame
+     * is drawn in time (e.g. the client is minimized). The returned image must be
+     * handed back with {@link #release(BufferedImage)}.
+     */
+    public CompletableFuture<BufferedImage> captureNextFrame(Rectangle region)
+    {
+        CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+        int canvasWidth = client.getCanvasWidth();
+        int canvasHeight = client.getCanvasHeight();
+
+        drawManager.requestNextFrameListener(frame -> {
+            if (future.isDone())
+            {
+                return;
+            }
+
+            try
+            {
+                BufferedImage copy = copyFrame(frame, region, canvasWidth, canvasHeight);
+                if (!future.complete(copy))
+                {
+                    // The timeout won the race, so nobody else will hand this buffer back
+                    release(copy);
+                }
+            }
+            catch (Exception e)
+            {
+                future.completeExceptionally(e);
+            }
+        });
+
+        try
+        {
+            executors.scheduler().schedule(
+                () -> future.completeExceptionally(new TimeoutException("No frame rendered within " + FRAME_TIMEOUT_MS + "ms")),
+                FRAME_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException e)
+        {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Return a captured buffer to the pool for reuse by the next drop
+     */
+    public void release(BufferedImage image)
+    {
+        if (image == null)
+        {
+            return;
+        }
+
+        synchronized (bufferPool)
+        {
+            if (bufferPool.size() < MAX_POOLED_BUFFERS)
+            {
+                bufferPool.push(image);
+            }
+        }
+    }
+
+    /**
+     * Runs on the client thread as part of the draw; only a single blit into a pooled buffer
+     */
+    private BufferedImage copyFrame(Image frame, Rectangle region, int canvasWidth, int canvasHeight)
+    {
+        int frameWidth = frame.getWidth(null);
+        int frameHeight = frame.getHeight(null);
+
+        Rectangle source = new Rectangle(0, 0, frameWidth, frameHeight);
+        if (region != null && canvasWidth > 0 && canvasHeight > 0)
+        {
+            // The frame can be larger than the canvas when stretched mode is on
+            double scaleX = (double) frameWidth / canvasWidth;
+            double scaleY = (double) frameHeight / canvasHeight;
+            Rectangle scaled = new Rectangle(
+                (int) Math.round(region.x * scaleX),
+                (int) Math.round(region.y * scaleY),
+                (int) Math.round(region.width * scaleX),
+                (int) Math.round(region.height * scaleY));
+            Rectangle clipped = scaled.intersection(source);
+            if (!clipped.isEmpty())
+            {
+                source = clipped;
+            }
+        }
+
+        BufferedImage buffer = acquire(source.width, source.height);
+        Graphics2D graphics = buffer.createGraphics();
+        try
+        {
+            graphics.drawImage(frame,
+                0, 0, source.width, source.height,
+                source.x, source.y, source.x + source.width, source.y + source.height,
+                null);
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+        return buffer;
+    }
+
+    private BufferedImage acquire(int width, int height)
+    {
+        synchronized (bufferPool)
+        {
+            // Drop buffers left over from a different canvas size or crop
+            while (!bufferPool.isEmpty())
+            {
+                BufferedImage pooled = bufferPool.pop();
+                if (pooled.getWidth() == width && pooled.getHeight() == height)
+                {
+                    return pooled;
+                }
+            }
+        }
+
+        log.debug("Allocating new {}x{} screenshot buffer", width, height);
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+}
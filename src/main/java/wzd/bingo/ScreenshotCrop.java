@@ -0,0 +1,24 @@
+package wzd.bingo;
+
+/**
+ * Region of the client included in drop screenshots
+ */
+public enum ScreenshotCrop
+{
+    NONE("Full client"),
+    GAME_VIEW("Game view"),
+    CHATBOX("Chatbox");
+
+    private final String name;
+
+    ScreenshotCrop(String name)
+    {
+        this.name = name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
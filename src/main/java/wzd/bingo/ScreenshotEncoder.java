@@ -0,0 +1,103 @@
+package wzd.bingo;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.inject.Singleton;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Encodes screenshots once for both local saving and uploading
+ */
+@Slf4j
+@Singleton
+public class ScreenshotEncoder
+{
+    /**
+     * Downscale and encode the image according to the profile. Runs on the cpu pool.
+     */
+    public EncodedScreenshot encode(BufferedImage image, ScreenshotProfile profile) throws IOException
+    {
+        long start = System.nanoTime();
+
+        BufferedImage scaled = downscale(image, profile.getMaxDimension());
+        long scaledAt = System.nanoTime();
+
+        // PNGs of the game canvas usually compress to well under a third of the raw pixels
+        ByteArrayOutputStream out = new ByteArrayOutputStream(scaled.getWidth() * scaled.getHeight());
+        if (profile.getFormat() == ScreenshotFormat.JPEG)
+        {
+            writeJpeg(scaled, profile.getQuality(), out);
+        }
+        else if (!ImageIO.write(scaled, profile.getFormat().getImageIoName(), out))
+        {
+            throw new IOException("No ImageIO writer available for " + profile.getFormat());
+        }
+
+        EncodedScreenshot encoded = new EncodedScreenshot(out.toByteArray(), profile.getFormat(),
+            scaled.getWidth(), scaled.getHeight());
+        log.info("Encoded screenshot [{}] {}x{} -> {}x{}, {} KB in {}ms (scale {}ms)", profile,
+            image.getWidth(), image.getHeight(), scaled.getWidth(), scaled.getHeight(), encoded.getSize() / 1024,
+            (System.nanoTime() - start) / 1_000_000, (scaledAt - start) / 1_000_000);
+        return encoded;
+    }
+
+    private static BufferedImage downscale(BufferedImage image, int maxDimension)
+    {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        if (maxDimension <= 0 || longest <= maxDimension)
+        {
+            return image;
+        }
+
+        double scale = (double) maxDimension / longest;
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try
+        {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        }
+        finally
+        {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeJpeg(BufferedImage image, int quality, ByteArrayOutputStream out) throws IOException
+    {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(ScreenshotFormat.JPEG.getImageIoName());
+        if (!writers.hasNext())
+        {
+            throw new IOException("No ImageIO writer available for " + ScreenshotFormat.JPEG);
+        }
+
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out))
+        {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality / 100f);
+
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        }
+        finally
+        {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package wzd.bingo;
+
+/**
+ * Image format used for drop screenshots
+ */
+public enum ScreenshotFormat
+{
+    PNG("png"),
+    JPEG("jpeg");
+
+    private final String imageIoName;
+
+    ScreenshotFormat(String imageIoName)
+    {
+        this.imageIoName = imageIoName;
+    }
+
+    /**
+     * ImageIO writer name, also used for the mime type
+     */
+    public String getImageIoName()
+    {
+        return imageIoName;
+    }
+
+    /**
+     * File extension for saved screenshots
+     */
+    public String getExtension()
+    {
+        return this == JPEG ? "jpg" : "png";
+    }
+}
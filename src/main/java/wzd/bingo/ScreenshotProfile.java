@@ -0,0 +1,63 @@
+package wzd.bingo;
+
+/**
+ * Snapshot of the screenshot settings used for a single capture and encode
+ */
+public class ScreenshotProfile
+{
+    private final ScreenshotFormat format;
+    private final int quality;
+    private final int maxDimension;
+    private final ScreenshotCrop crop;
+
+    public ScreenshotProfile(ScreenshotFormat format, int quality, int maxDimension, ScreenshotCrop crop)
+    {
+        this.format = format;
+        this.quality = Math.max(1, Math.min(100, quality));
+        this.maxDimension = Math.max(0, maxDimension);
+        this.crop = crop;
+    }
+
+    public static ScreenshotProfile fromConfig(BingoConfig config)
+    {
+        return new ScreenshotProfile(
+            config.screenshotFormat(),
+            config.screenshotQuality(),
+            config.screenshotMaxDimension(),
+            config.screenshotCrop()
+        );
+    }
+
+    public ScreenshotFormat getFormat()
+    {
+        return format;
+    }
+
+    /**
+     * Quality from 1 to 100; only used by lossy formats
+     */
+    public int getQuality()
+    {
+        return quality;
+    }
+
+    /**
+     * Longest allowed edge in pixels, or 0 to keep the captured size
+     */
+    public int getMaxDimension()
+    {
+        return maxDimension;
+    }
+
+    public ScreenshotCrop getCrop()
+    {
+        return crop;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s q%d, max %s, crop %s",
+            format, quality, maxDimension > 0 ? maxDimension + "px" : "none", crop);
+    }
+}
@@ -0,0 +1,55 @@
+package wzd.bingo;
+
+import javax.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signup status per event for the logged in RSN. Entries expire after a short
+ * TTL so acceptance changes made on the site still show up, and an entry for
+ * a different RSN is never returned.
+ */
+@Singleton
+public class SignupStatusCache
+{
+    private static final long TTL_MS = 2 * 60 * 1000;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Cached status if it is still fresh for this RSN, otherwise null
+     */
+    public SignupStatus get(String bingoId, String rsn)
+    {
+        Entry entry = entries.get(bingoId);
+        if (entry == null || !entry.rsn.equals(rsn) || System.currentTimeMillis() - entry.storedAt > TTL_MS)
+        {
+            return null;
+        }
+        return entry.status;
+    }
+
+    public void put(String bingoId, String rsn, SignupStatus status)
+    {
+        entries.put(bingoId, new Entry(rsn, status, System.currentTimeMillis()));
+    }
+
+    public void clear()
+    {
+        entries.clear();
+    }
+
+    private static class Entry
+    {
+        private final String rsn;
+        private final SignupStatus status;
+        private final long storedAt;
+
+        Entry(String rsn, SignupStatus status, long storedAt)
+        {
+            this.rsn = rsn;
+            this.status = status;
+            this.storedAt = storedAt;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package wzd.bingo;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.inject.Singleton;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Local index of the board's tile rules, compiled from the board JSON so the
+ * activity handler only submits events that can advance a tile. Until a board
+ * has been compiled every event is allowed through.
+ *
+ * A tile rule names an activity type and optionally NPC and item ids. A rule
+ * with no ids matches every event of its activity type.
+ */
+@Slf4j
+@Singleton
+public class TileRuleIndex
+{
+    // Replaced wholesale on each compile so readers on the client thread never see a partial board
+    private volatile Rules rules = null;
+    private JsonObject compiledBoard;
+
+    /**
+     * Compile the tile definitions from a board response. Tolerates the tile list
+     * at the top level or under "board", and rules either inline on the tile or in
+     * a "requirements" array.
+     */
+    public synchronized void compile(JsonObject board)
+    {
+        // Unchanged boards come back from the response cache as the same object
+        if (board == compiledBoard && rules != null)
+        {
+            return;
+        }
+        compiledBoard = board;
+
+        JsonArray tiles = findTiles(board);
+        if (tiles == null)
+        {
+            log.warn("Board data has no tile list - tile filtering disabled");
+            rules = null;
+            return;
+        }
+
+        Rules compiled = new Rules();
+        for (JsonElement element : tiles)
+        {
+            if (!element.isJsonObject())
+            {
+                continue;
+            }
+
+            JsonObject tile = element.getAsJsonObject();
+            // Rules without a tile cannot advance anything
+            if (getString(tile, "id", "tileId") == null)
+            {
+                continue;
+            }
+
+            compiled.addRule(tile);
+            if (tile.has("requirements") && tile.get("requirements").isJsonArray())
+            {
+                for (JsonElement requirement : tile.getAsJsonArray("requirements"))
+                {
+                    if (requirement.isJsonObject())
+                    {
+                        compiled.addRule(requirement.getAsJsonObject());
+                    }
+                }
+            }
+        }
+
+        rules = compiled;
+        log.info("Compiled {} tiles into rule index ({} npcs, {} items, {} open activity types)",
+            tiles.size(), compiled.npcIds.size(), compiled.itemIds.size(), compiled.openActivityTypes.size());
+    }
+
+    /**
+     * Forget the compiled board, allowing every event through again
+     */
+    public synchronized void clear()
+    {
+        compiledBoard = null;
+        rules = null;
+    }
+
+    /**
+     * Whether a kill of this NPC with the given activity type can advance a tile
+     */
+    public boolean matchesKill(String activityType, int npcId)
+    {
+        Rules current = rules;
+        return current == null
+            || current.openActivityTypes.contains(activityType)
+            || current.npcIds.contains(npcId);
+    }
+
+    /**
+     * Whether this item is named by a tile
+     */
+    public boolean matchesItem(int itemId)
+    {
+        Rules current = rules;
+        return current != null && current.itemIds.contains(itemId);
+    }
+
+    /**
+     * Whether the board has a tile counting any drop, so value-based drops are worth submitting
+     */
+    public boolean acceptsAnyDrop()
+    {
+        Rules current = rules;
+        return current == null || current.openActivityTypes.contains("DROP");
+    }
+
+    private static JsonArray findTiles(JsonObject board)
+    {
+        if (board == null)
+        {
+            return null;
+        }
+        if (board.has("tiles") && board.get("tiles").isJsonArray())
+        {
+            return board.getAsJsonArray("tiles");
+        }
+        if (board.has("board") && board.get("board").isJsonObject())
+        {
+            return findTiles(board.getAsJsonObject("board"));
+        }
+        return null;
+    }
+
+    private static String getString(JsonObject obj, String primaryKey, String fallbackKey)
+    {
+        if (obj.has(primaryKey) && !obj.get(primaryKey).isJsonNull())
+        {
+            return obj.get(primaryKey).getAsString();
+        }
+        else if (obj.has(fallbackKey) && !obj.get(fallbackKey).isJsonNull())
+        {
+            return obj.get(fallbackKey).getAsString();
+        }
+        return null;
+    }
+
+    private static class Rules
+    {
+        private final IntHashSet npcIds = new IntHashSet();
+        private final IntHashSet itemIds = new IntHashSet();
+        private final Set<String> openActivityTypes = new HashSet<>();
+
+        private void addRule(JsonObject rule)
+        {
+            boolean hasIds = false;
+
+            for (int npcId : readIds(rule, "npcIds", "npcId"))
+            {
+                npcIds.add(npcId);
+                hasIds = true;
+            }
+            for (int itemId : readIds(rule, "itemIds", "itemId"))
+            {
+                itemIds.add(itemId);
+                hasIds = true;
+            }
+
+            String activityType = getString(rule, "activityType", "type");
+            if (activityType != null && !hasIds)
+            {
+                openActivityTypes.add(activityType.toUpperCase());
+            }
+        }
+
+        private static int[] readIds(JsonObject rule, String arrayKey, String singleKey)
+        {
+            try
+            {
+                if (rule.has(arrayKey) && rule.get(arrayKey).isJsonArray())
+                {
+                    JsonArray array = rule.getAsJsonArray(arrayKey);
+                    int[] ids = new int[array.size()];
+                    for (int i = 0; i < ids.length; i++)
+                    {
+                        ids[i] = array.get(i).getAsInt();
+                    }
+                    return ids;
+                }
+                if (rule.has(singleKey) && !rule.get(singleKey).isJsonNull())
+                {
+                    return new int[]{rule.get(singleKey).getAsInt()};
+                }
+            }
+            catch (NumberFormatException | IllegalStateException | UnsupportedOperationException e)
+            {
+                log.debug("Ignoring non-numeric ids in tile rule: {}", rule);
+            }
+            return new int[0];
+        }
+    }
+}
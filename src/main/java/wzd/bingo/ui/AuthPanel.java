@@ -7,6 +7,7 @@ import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
 import net.runelite.client.util.ImageUtil;
 import wzd.bingo.BingoConfig;
+import wzd.bingo.BingoExecutors;
 import wzd.bingo.BingoService;
 
 import javax.swing.*;
@@ -31,6 +32,7 @@ public class AuthPanel extends PluginPanel
     private final BingoConfig config;
     private final BingoService bingoService;
     private final Client client;
+    private final BingoExecutors executors;
     private final Runnable onAuthenticationSuccess;
     
     private JTextField rsnField;
@@ -41,11 +43,12 @@ public class AuthPanel extends PluginPanel
     private JLabel instructionsLabel;
     private Timer rsnUpdateTimer;
     
-    public AuthPanel(BingoConfig config, BingoService bingoService, Client client, Runnable onAuthenticationSuccess)
+    public AuthPanel(BingoConfig config, BingoService bingoService, Client client, BingoExecutors executors, Runnable onAuthenticationSuccess)
     {
         this.config = config;
         this.bingoService = bingoService;
         this.client = client;
+        this.executors = executors;
         this.onAuthenticationSuccess = onAuthenticationSuccess;
         
         initializeComponents();
@@ -301,8 +304,8 @@ public class AuthPanel extends PluginPanel
         linkAccountButton.setEnabled(false);
         updateStatus("Authenticating with clan.bingo...", ColorScheme.LIGHT_GRAY_COLOR);
         
-        // Perform authentication in background thread (not on EDT)
-        new Thread(() -> {
+        // Perform authentication on the plugin io pool (not on EDT)
+        executors.io().execute(() -> {
             Optional<String> result = bingoService.authenticateWithDiscord(rsn, discordId);
             
             // Update UI back on EDT
@@ -326,7 +329,7 @@ public class AuthPanel extends PluginPanel
                     updateStatus("Authentication failed. Check your Discord ID.", ERROR_COLOR);
                 }
             });
-        }).start();
+        });
     }
     
     private void handleVisitProfile()
@@ -8,6 +8,8 @@ import net.runelite.client.config.ConfigManager;
 import net.runelite.client.ui.ColorScheme;
 import net.runelite.client.ui.PluginPanel;
 import net.runelite.client.util.ImageUtil;
+import wzd.bingo.ActivityFeedSubscription;
+import wzd.bingo.ActivityHistory;
 import wzd.bingo.BingoActivityHandler;
 import wzd.bingo.BingoConfig;
 import wzd.bingo.BingoService;
@@ -40,6 +42,7 @@ public class BingoMainPanel extends PluginPanel
     private static final Color ERROR_COLOR = ColorScheme.PROGRESS_ERROR_COLOR;
     private static final Color INFO_PANEL_COLOR = new Color(45, 45, 45);
     private static final Color CARD_BORDER_COLOR = new Color(70, 70, 70);
+    private static final int ACTIVITY_HISTORY_CAPACITY = 500;
 
     private final BingoConfig config;
     private final BingoService bingoService;
@@ -57,7 +60,6 @@ public class BingoMainPanel extends PluginPanel
     private JButton viewBoardButton;
     private JLabel statusLabel;
     private Timer eventRefreshTimer;
-    private Timer activityRefreshTimer;
     
     // Activity log components
     private JScrollPane activityLogPanel; // Now directly using scroll pane
@@ -66,6 +68,20 @@ public class BingoMainPanel extends PluginPanel
     private DefaultListModel<ActivityLogEntry> activityListModel;
     private boolean isParticipatingInEvent = false;
     
+    // Last responses drawn, so unchanged refreshes skip rebuilding the UI
+    private JsonObject renderedEventsData;
+    private JsonObject renderedActivityData;
+    
+    // Loaded activity for the selected event, synced forwards by cursor and paged backwards on scroll-up
+    private final SimpleDateFormat activityTimeFormat = new SimpleDateFormat("HH:mm-dd/MM");
+    private ActivityHistory activityHistory;
+    private boolean showingActivityPlaceholder = false;
+    private boolean loadingOlderActivity = false;
+    private int lastActivityScrollValue = 0;
+    
+    // Streams new activity for the selected event, polling while the stream is unavailable
+    private ActivityFeedSubscription activityFeed;
+    
     // Icon buttons
     private JButton logoutButton;
     private JButton settingsButton;
@@ -101,9 +117,6 @@ public class BingoMainPanel extends PluginPanel
         // Start periodic event refresh (every 5 minutes)
         startEventRefreshTimer();
         
-        // Start activity log refresh (every 30 seconds)
-        startActivityRefreshTimer();
-        
         // Load initial data
         refreshActiveEvents();
         
@@ -200,6 +213,17 @@ public class BingoMainPanel extends PluginPanel
         ));
         activityScrollPane.setBackground(INFO_PANEL_COLOR);
         
+        // Reaching the top by scrolling up requests the next page of older activity
+        activityScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar scrollBar = activityScrollPane.getVerticalScrollBar();
+            int value = e.getValue();
+            if (!e.getValueIsAdjusting() && value == scrollBar.getMinimum() && lastActivityScrollValue > value)
+            {
+                loadOlderActivity();
+            }
+            lastActivityScrollValue = value;
+        });
+        
         // Use scroll pane directly as activity log panel (remove wrapper)
         activityLogPanel = activityScrollPane;
         
@@ -685,9 +709,7 @@ public class BingoMainPanel extends PluginPanel
                 viewBoardButton.setEnabled(true);
                 
                 // Show activity log and start participating
-                isParticipatingInEvent = true;
-                activityLogPanel.setVisible(true);
-                refreshActivityLog(selectedEvent.getBingoId());
+                showActivityLog(selectedEvent.getBingoId());
                 
                 // Set activity handler to track this event
                 activityHandler.setParticipating(true, selectedEvent.getBingoId());
@@ -701,6 +723,7 @@ public class BingoMainPanel extends PluginPanel
                 // Hide activity log and stop participating
                 isParticipatingInEvent = false;
                 activityLogPanel.setVisible(false);
+                stopActivityFeed();
                 
                 // Stop activity tracking
                 activityHandler.setParticipating(false, null);
@@ -774,23 +797,40 @@ public class BingoMainPanel extends PluginPanel
     
     private void refreshActiveEventsWithCallback(Runnable callback)
     {
-        updateStatus("Loading events...", ColorScheme.LIGHT_GRAY_COLOR);
-        
-        // Disable interactions while loading
-        eventDropdown.setEnabled(false);
-        viewBoardButton.setEnabled(false);
-        showEventDetails(false);
-        
-        new Thread(() -> {
-            Optional<JsonObject> eventsData = bingoService.fetchActiveEvents();
+        // Render the last known events straight away and revalidate in the background
+        JsonObject cached = bingoService.getCachedActiveEvents().orElse(null);
+        if (cached != null && callback == null)
+        {
+            if (cached != renderedEventsData)
+            {
+                updateEventDropdown(cached);
+                renderedEventsData = cached;
+            }
+            updateStatus("Refreshing events...", ColorScheme.LIGHT_GRAY_COLOR);
+        }
+        else
+        {
+            updateStatus("Loading events...", ColorScheme.LIGHT_GRAY_COLOR);
             
+            // Disable interactions while loading
+            eventDropdown.setEnabled(false);
+            viewBoardButton.setEnabled(false);
+            showEventDetails(false);
+        }
+        
+        bingoService.fetchActiveEvents().thenAccept(eventsData -> {
             SwingUtilities.invokeLater(() -> {
                 // Re-enable interactions
                 eventDropdown.setEnabled(true);
                 
                 if (eventsData.isPresent())
                 {
-                    updateEventDropdown(eventsData.get(), callback);
+                    // An unchanged response (304) is the same object already on screen
+                    if (callback != null || eventsData.get() != renderedEventsData)
+                    {
+                        updateEventDropdown(eventsData.get(), callback);
+                        renderedEventsData = eventsData.get();
+                    }
                     updateStatus("Events loaded successfully", SUCCESS_COLOR);
                 }
                 else
@@ -799,6 +839,7 @@ public class BingoMainPanel extends PluginPanel
                     eventDropdown.removeAllItems();
                     eventDropdown.addItem(new EventItem("", "No events available", "", 0, 0, 0, false, "", 0));
                     showEventDetails(false);
+                    renderedEventsData = null;
                     
                     // Run callback even if no events
                     if (callback != null)
@@ -807,7 +848,7 @@ public class BingoMainPanel extends PluginPanel
                     }
                 }
             });
-        }).start();
+        });
     }
     
     private void updateEventDropdown(JsonObject eventsData)
@@ -882,6 +923,7 @@ public class BingoMainPanel extends PluginPanel
     
     private void parseEventArray(JsonArray events)
     {
+        List<String> bingoIds = new ArrayList<>();
         for (JsonElement eventElement : events)
         {
             JsonObject event = eventElement.getAsJsonObject();
@@ -921,8 +963,12 @@ public class BingoMainPanel extends PluginPanel
             
             EventItem eventItem = new EventItem(bingoId, name, groupId, durationDays, daysRemaining, totalTiles, isActive, prizePool, participants);
             eventDropdown.addItem(eventItem);
+            bingoIds.add(bingoId);
             log.info("Added event to dropdown: {} (Active: {}, Participants: {})", name, isActive, participants);
         }
+        
+        // Warm signup statuses so selecting an event does not wait on a round trip
+        bingoService.prefetchSignupStatuses(bingoIds);
     }
     
     private String getStringField(JsonObject obj, String primaryKey, String fallbackKey)
@@ -976,54 +1022,18 @@ public class BingoMainPanel extends PluginPanel
         eventNameLabel.setForeground(ACCENT_COLOR);
         eventNameLabel.setFont(eventNameLabel.getFont().deriveFont(Font.BOLD, 14f));
         
-        // Check signup status asynchronously
-        new Thread(() -> {
-            try
-            {
-                SignupStatus signupStatus = bingoService.getSignupStatusForEvent(event.getBingoId());
-                SwingUtilities.invokeLater(() -> {
-                    String signupText;
-                    Color signupColor;
-                    
-                    if (signupStatus.isSignedUp() && signupStatus.isAccepted())
-                    {
-                        signupText = " [Signed up & Accepted]";
-                        signupColor = SUCCESS_COLOR;
-                    }
-                    else if (signupStatus.isSignedUp())
-                    {
-                        signupText = " [Signed up]";
-                        signupColor = new Color(255, 165, 0); // Orange for pending acceptance
-                    }
-                    else
-                    {
-                        signupText = " [Not signed up]";
-                        signupColor = ERROR_COLOR;
-                    }
-                    
-                    totalParticipantsLabel.setText("<html>👥 Participants: " + event.getParticipants() + 
-                        "<span style='color: " + String.format("#%06X", signupColor.getRGB() & 0xFFFFFF) + "'>" + 
-                        signupText + "</span></html>");
-                });
-            }
-            catch (Exception e)
-            {
-                log.warn("Failed to check signup status for event {}: {}", event.getBingoId(), e.getMessage());
-                SwingUtilities.invokeLater(() -> {
-                    // Show different message based on error type
-                    String statusText;
-                    if (e.getMessage() != null && e.getMessage().contains("500"))
-                    {
-                        statusText = " [Server error - try later]";
-                    }
-                    else
-                    {
-                        statusText = " [Status unknown]";
-                    }
-                    totalParticipantsLabel.setText("👥 Participants: " + event.getParticipants() + statusText);
-                });
-            }
-        }).start();
+        // Prefetched statuses render immediately; otherwise check asynchronously
+        Optional<SignupStatus> cachedStatus = bingoService.getCachedSignupStatus(event.getBingoId());
+        if (cachedStatus.isPresent())
+        {
+            showSignupStatus(event, cachedStatus.get());
+        }
+        else
+        {
+            totalParticipantsLabel.setText("👥 Participants: " + event.getParticipants());
+            bingoService.getSignupStatusForEvent(event.getBingoId()).thenAccept(signupStatus ->
+                SwingUtilities.invokeLater(() -> showSignupStatus(event, signupStatus)));
+        }
         
         String prizeText = event.getPrizePool();
         if (prizeText == null || prizeText.isEmpty()) {
@@ -1038,6 +1048,38 @@ public class BingoMainPanel extends PluginPanel
         viewBoardButton.setBackground(ACCENT_COLOR);
     }
     
+    private void showSignupStatus(EventItem event, SignupStatus signupStatus)
+    {
+        String signupText;
+        Color signupColor;
+        
+        if (signupStatus.isSignedUp() && signupStatus.isAccepted())
+        {
+            signupText = " [Signed up & Accepted]";
+            signupColor = SUCCESS_COLOR;
+        }
+        else if (signupStatus.isSignedUp())
+        {
+            signupText = " [Signed up]";
+            signupColor = new Color(255, 165, 0); // Orange for pending acceptance
+        }
+        else if (signupStatus.getMessage() != null && signupStatus.getMessage().contains("500"))
+        {
+            // Show a different message when the server errored rather than reporting no signup
+            totalParticipantsLabel.setText("👥 Participants: " + event.getParticipants() + " [Server error - try later]");
+            return;
+        }
+        else
+        {
+            signupText = " [Not signed up]";
+            signupColor = ERROR_COLOR;
+        }
+        
+        totalParticipantsLabel.setText("<html>👥 Participants: " + event.getParticipants() + 
+            "<span style='color: " + String.format("#%06X", signupColor.getRGB() & 0xFFFFFF) + "'>" + 
+            signupText + "</span></html>");
+    }
+    
     private void clearEventInfo()
     {
         eventNameLabel.setText("Event Details");
@@ -1096,93 +1138,171 @@ public class BingoMainPanel extends PluginPanel
         eventRefreshTimer.start();
     }
     
-    private void startActivityRefreshTimer()
+    /**
+     * Show the log for the event being participated in and keep it live
+     */
+    void showActivityLog(String bingoId)
     {
-        // Refresh activity log every 30 seconds
-        activityRefreshTimer = new Timer(30 * 1000, e -> {
-            if (isParticipatingInEvent)
-            {
-                EventItem selectedEvent = (EventItem) eventDropdown.getSelectedItem();
-                if (selectedEvent != null && !selectedEvent.isEmpty())
-                {
-                    refreshActivityLog(selectedEvent.getBingoId());
-                }
-            }
-        });
-        activityRefreshTimer.start();
+        isParticipatingInEvent = true;
+        activityLogPanel.setVisible(true);
+        refreshActivityLog(bingoId);
+    }
+    
+    ListModel<ActivityLogEntry> getActivityLogModel()
+    {
+        return activityListModel;
     }
     
     private void refreshActivityLog(String bingoId)
     {
-        // Fetch activity log from backend in a background thread
-        new Thread(() -> {
-            try
-            {
-                Optional<JsonObject> activityData = bingoService.fetchActivityLog(bingoId);
+        // Once an event's log is loaded only entries newer than the cursor are fetched
+        if (activityHistory != null && activityHistory.getBingoId().equals(bingoId) && !activityHistory.isEmpty())
+        {
+            syncNewActivity(activityHistory);
+            startActivityFeed(bingoId);
+            return;
+        }
+        
+        // First load for this event: show the cached log immediately, then revalidate without blocking a plugin thread
+        bingoService.getCachedActivityLog(bingoId).ifPresent(activityData -> renderActivityLog(bingoId, activityData));
+        
+        bingoService.fetchActivityLog(bingoId).thenAccept(activityData -> {
+            SwingUtilities.invokeLater(() -> {
                 if (activityData.isPresent())
                 {
-                    SwingUtilities.invokeLater(() -> updateActivityLog(activityData.get()));
+                    renderActivityLog(bingoId, activityData.get());
                 }
-            }
-            catch (Exception e)
+                else if (activityHistory == null || !activityHistory.getBingoId().equals(bingoId))
+                {
+                    // Nothing cached to keep showing, so say why the log is empty. The feed
+                    // fills this empty history and replaces the error once entries arrive.
+                    activityHistory = new ActivityHistory(bingoId, ACTIVITY_HISTORY_CAPACITY);
+                    renderedActivityData = null;
+                    loadingOlderActivity = false;
+                    showActivityLogError();
+                }
+                
+                // Live updates resume from the newest entry loaded
+                if (isParticipatingInEvent)
+                {
+                    startActivityFeed(bingoId);
+                }
+            });
+        });
+    }
+    
+    private void startActivityFeed(String bingoId)
+    {
+        if (activityFeed != null && activityFeed.getBingoId().equals(bingoId))
+        {
+            return;
+        }
+        stopActivityFeed();
+        
+        long cursor = activityHistory != null && activityHistory.getBingoId().equals(bingoId)
+            ? activityHistory.getNewestTimestamp()
+            : 0;
+        
+        activityFeed = bingoService.subscribeToActivity(bingoId, cursor, new ActivityFeedSubscription.Listener()
+        {
+            @Override
+            public void onActivities(JsonArray activities)
             {
-                log.error("Failed to fetch activity log", e);
                 SwingUtilities.invokeLater(() -> {
-                    activityListModel.clear();
-                    ActivityLogEntry errorEntry = new ActivityLogEntry("", "ERROR", "", "", 0, "", "", 
-                        "Failed to load activity log. Check connection.", 0);
-                    activityListModel.addElement(errorEntry);
+                    if (activityHistory != null && activityHistory.getBingoId().equals(bingoId))
+                    {
+                        appendActivity(activityHistory.appendNewer(activities));
+                    }
                 });
             }
-        }).start();
+            
+            @Override
+            public void onLiveChanged(boolean live)
+            {
+                log.debug("Activity feed for event {} is now {}", bingoId, live ? "live" : "polling");
+            }
+        });
+    }
+    
+    private void stopActivityFeed()
+    {
+        if (activityFeed != null)
+        {
+            activityFeed.stop();
+            activityFeed = null;
+        }
+    }
+    
+    private void syncNewActivity(ActivityHistory history)
+    {
+        bingoService.fetchActivitySince(history.getBingoId(), history.getNewestTimestamp()).thenAccept(activities -> {
+            // A quiet feed costs no work on the event thread
+            if (!activities.isPresent() || activities.get().size() == 0)
+            {
+                return;
+            }
+            
+            SwingUtilities.invokeLater(() -> {
+                if (history == activityHistory)
+                {
+                    appendActivity(history.appendNewer(activities.get()));
+                }
+            });
+        });
+    }
+    
+    private void loadOlderActivity()
+    {
+        ActivityHistory history = activityHistory;
+        if (history == null || history.isEmpty() || !history.hasOlder() || loadingOlderActivity)
+        {
+            return;
+        }
+        
+        loadingOlderActivity = true;
+        bingoService.fetchActivityBefore(history.getBingoId(), history.getOldestTimestamp()).thenAccept(activities -> {
+            SwingUtilities.invokeLater(() -> {
+                loadingOlderActivity = false;
+                if (activities.isPresent() && history == activityHistory)
+                {
+                    prependActivity(history.prependOlder(activities.get(), BingoService.ACTIVITY_PAGE_SIZE));
+                }
+            });
+        });
+    }
+    
+    private void renderActivityLog(String bingoId, JsonObject activityData)
+    {
+        // Unchanged responses (304) hand back the object already rendered
+        if (activityData == renderedActivityData && activityHistory != null && activityHistory.getBingoId().equals(bingoId))
+        {
+            return;
+        }
+        
+        renderedActivityData = activityData;
+        activityHistory = new ActivityHistory(bingoId, ACTIVITY_HISTORY_CAPACITY);
+        loadingOlderActivity = false;
+        updateActivityLog(activityData);
     }
     
     private void updateActivityLog(JsonObject activityData)
     {
         try
         {
-            SimpleDateFormat formatter = new SimpleDateFormat("HH:mm-dd/MM");
             activityListModel.clear();
+            showingActivityPlaceholder = false;
             
             if (activityData.has("activities"))
             {
-                JsonArray activities = activityData.getAsJsonArray("activities");
-                for (JsonElement activityElement : activities)
+                for (JsonObject activity : activityHistory.appendNewer(activityData.getAsJsonArray("activities")))
                 {
-                    JsonObject activity = activityElement.getAsJsonObject();
-                    
-                    String playerRsn = activity.get("playerRsn").getAsString();
-                    String activityType = activity.get("activityType").getAsString();
-                    String timestamp = activity.get("timestamp").getAsString();
-                    String monsterName = activity.has("monsterName") ? activity.get("monsterName").getAsString() : "";
-                    String dropName = activity.has("dropName") && !activity.get("dropName").isJsonNull() ? activity.get("dropName").getAsString() : "";
-                    int totalKc = activity.has("totalKc") ? activity.get("totalKc").getAsInt() : 0;
-                    String screenshotUrl = activity.has("screenshotUrl") && !activity.get("screenshotUrl").isJsonNull() ? activity.get("screenshotUrl").getAsString() : "";
-                    int teamId = activity.has("teamId") ? activity.get("teamId").getAsInt() : 0;
-                    
-                    // Parse timestamp and format
-                    Date date = new Date(Long.parseLong(timestamp) * 1000);
-                    String formattedTime = formatter.format(date);
-                    
-                    ActivityLogEntry entry = new ActivityLogEntry(playerRsn, activityType, monsterName, 
-                        dropName, totalKc, screenshotUrl, timestamp, formattedTime, teamId);
-                    
-                    activityListModel.addElement(entry);
+                    activityListModel.addElement(toLogEntry(activity));
                 }
             }
             
             if (activityListModel.isEmpty())
             {
-                // Add a placeholder entry
-                ActivityLogEntry placeholder = new ActivityLogEntry("", "INFO", "", "", 0, "", "", 
-                    "No recent activity.", 0);
-                ActivityLogEntry placeholder2 = new ActivityLogEntry("", "INFO", "", "", 0, "", "",
-                        "Start participating to see your team's", 0);
-                ActivityLogEntry placeholder3 = new ActivityLogEntry("", "INFO", "", "", 0, "", "",
-                        "progress!", 0);
-                activityListModel.addElement(placeholder);
-                activityListModel.addElement(placeholder2);
-                activityListModel.addElement(placeholder3);
+                showActivityPlaceholder();
             }
             
             // Scroll to bottom to show latest activity
@@ -1202,16 +1322,112 @@ public class BingoMainPanel extends PluginPanel
         }
     }
     
+    private void appendActivity(List<JsonObject> added)
+    {
+        if (added.isEmpty())
+        {
+            return;
+        }
+        
+        if (showingActivityPlaceholder)
+        {
+            activityListModel.clear();
+            showingActivityPlaceholder = false;
+        }
+        
+        JScrollBar scrollBar = activityScrollPane.getVerticalScrollBar();
+        boolean atBottom = scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum();
+        
+        for (JsonObject activity : added)
+        {
+            activityListModel.addElement(toLogEntry(activity));
+        }
+        
+        // Keep the list in step with the bounded history
+        while (activityListModel.getSize() > activityHistory.size())
+        {
+            activityListModel.remove(0);
+        }
+        
+        // Only follow new entries if the user was already looking at the latest
+        if (atBottom)
+        {
+            activityList.ensureIndexIsVisible(activityListModel.getSize() - 1);
+        }
+    }
+    
+    private void prependActivity(List<JsonObject> added)
+    {
+        if (added.isEmpty() || showingActivityPlaceholder)
+        {
+            return;
+        }
+        
+        for (int i = 0; i < added.size(); i++)
+        {
+            activityListModel.add(i, toLogEntry(added.get(i)));
+        }
+        
+        // Keep the row the user was looking at in place
+        Rectangle previousTop = activityList.getCellBounds(added.size(), added.size());
+        if (previousTop != null)
+        {
+            activityScrollPane.getViewport().setViewPosition(new Point(0, previousTop.y));
+        }
+    }
+    
+    private ActivityLogEntry toLogEntry(JsonObject activity)
+    {
+        String playerRsn = activity.get("playerRsn").getAsString();
+        String activityType = activity.get("activityType").getAsString();
+        String timestamp = activity.get("timestamp").getAsString();
+        String monsterName = activity.has("monsterName") ? activity.get("monsterName").getAsString() : "";
+        String dropName = activity.has("dropName") && !activity.get("dropName").isJsonNull() ? activity.get("dropName").getAsString() : "";
+        int totalKc = activity.has("totalKc") ? activity.get("totalKc").getAsInt() : 0;
+        String screenshotUrl = activity.has("screenshotUrl") && !activity.get("screenshotUrl").isJsonNull() ? activity.get("screenshotUrl").getAsString() : "";
+        int teamId = activity.has("teamId") ? activity.get("teamId").getAsInt() : 0;
+        
+        // Parse timestamp and format
+        Date date = new Date(Long.parseLong(timestamp) * 1000);
+        String formattedTime = activityTimeFormat.format(date);
+        
+        return new ActivityLogEntry(playerRsn, activityType, monsterName, 
+            dropName, totalKc, screenshotUrl, timestamp, formattedTime, teamId);
+    }
+    
+    private void showActivityLogError()
+    {
+        activityListModel.clear();
+        ActivityLogEntry errorEntry = new ActivityLogEntry("", "ERROR", "", "", 0, "", "", 
+            "Failed to load activity log. Check connection.", 0);
+        activityListModel.addElement(errorEntry);
+        
+        // Replaced like the placeholder once live activity arrives
+        showingActivityPlaceholder = true;
+    }
+    
+    private void showActivityPlaceholder()
+    {
+        // Add a placeholder entry
+        ActivityLogEntry placeholder = new ActivityLogEntry("", "INFO", "", "", 0, "", "", 
+            "No recent activity.", 0);
+        ActivityLogEntry placeholder2 = new ActivityLogEntry("", "INFO", "", "", 0, "", "",
+                "Start participating to see your team's", 0);
+        ActivityLogEntry placeholder3 = new ActivityLogEntry("", "INFO", "", "", 0, "", "",
+                "progress!", 0);
+        activityListModel.addElement(placeholder);
+        activityListModel.addElement(placeholder2);
+        activityListModel.addElement(placeholder3);
+        showingActivityPlaceholder = true;
+    }
+    
     public void shutdown()
     {
         if (eventRefreshTimer != null)
         {
             eventRefreshTimer.stop();
         }
-        if (activityRefreshTimer != null)
-        {
-            activityRefreshTimer.stop();
-        }
+        stopActivityFeed();
         log.info("BingoMainPanel shutdown complete");
     }
     
@@ -1436,7 +1652,7 @@ public class BingoMainPanel extends PluginPanel
     }
 
     // Activity log entry class
-    private static class ActivityLogEntry
+    static class ActivityLogEntry
     {
         private final String playerRsn;
         private final String activityType;
@@ -0,0 +1,422 @@
+package wzd.bingo;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ActivityFeedSubscriptionTest
+{
+    private static final String EVENT = "event-1";
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private final FakeStreams streams = new FakeStreams();
+    private final FakeService service = new FakeService();
+    private final List<JsonArray> delivered = new ArrayList<>();
+    private final List<Boolean> liveChanges = new ArrayList<>();
+
+    private ActivityFeedSubscription feed;
+
+    @Before
+    public void setUp()
+    {
+        BingoExecutors executors = new BingoExecutors()
+        {
+            @Override
+            public synchronized ScheduledThreadPoolExecutor scheduler()
+            {
+                return scheduler;
+            }
+        };
+        BingoSession session = new BingoSession()
+        {
+            @Override
+            public Snapshot get()
+            {
+                return new Snapshot("Zezima", 7, "token", "https://example.invalid", 0);
+            }
+        };
+
+        feed = new ActivityFeedSubscription(EVENT, 100, streams, service, session, executors,
+            new ActivityFeedSubscription.Listener()
+            {
+                @Override
+                public void onActivities(JsonArray activities)
+                {
+                    delivered.add(activities);
+                }
+
+                @Override
+                public void onLiveChanged(boolean live)
+                {
+                    liveChanges.add(live);
+                }
+            });
+        feed.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        feed.stop();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void connectsFromTheInitialCursor()
+    {
+        assertEquals(1, streams.sockets.size());
+        assertTrue(streams.latest().url().endsWith("/api/bingo/activity/" + EVENT + "/stream?since=100"));
+    }
+
+    @Test
+    public void reconnectBacksOffAndResetsOnceConnected()
+    {
+        streams.latest().fail();
+        scheduler.advance(999);
+        assertEquals(1, streams.sockets.size());
+        scheduler.advance(1);
+        assertEquals(2, streams.sockets.size());
+
+        streams.latest().fail();
+        scheduler.advance(1999);
+        assertEquals(2, streams.sockets.size());
+        scheduler.advance(1);
+        assertEquals(3, streams.sockets.size());
+
+        streams.latest().open();
+        streams.latest().fail();
+        scheduler.advance(1000);
+        assertEquals(4, streams.sockets.size());
+    }
+
+    @Test
+    public void reconnectDelayIsCapped()
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            streams.latest().fail();
+            scheduler.advance(60_000);
+        }
+        assertEquals(11, streams.sockets.size());
+    }
+
+    @Test
+    public void reconnectResumesFromNewestStreamedEntry()
+    {
+        streams.latest().open();
+        streams.latest().message("[" + activity(150) + "," + activity(240) + "]");
+        streams.latest().fail();
+        scheduler.advance(1000);
+
+        assertEquals(1, delivered.size());
+        assertEquals(2, delivered.get(0).size());
+        assertTrue(streams.latest().url().endsWith("stream?since=240"));
+    }
+
+    @Test
+    public void pollsUntilTheStreamConnects()
+    {
+        scheduler.advance(15_000);
+        assertEquals(1, service.polls.size());
+        assertEquals(100L, (long) service.polls.get(0).since);
+
+        service.polls.get(0).complete(activity(130));
+        assertEquals(1, delivered.size());
+
+        // Something arrived, so the next poll comes after the minimum interval
+        scheduler.advance(15_000);
+        assertEquals(2, service.polls.size());
+        assertEquals(130L, (long) service.polls.get(1).since);
+    }
+
+    @Test
+    public void quietPollsBackOff()
+    {
+        scheduler.advance(15_000);
+        service.polls.get(0).complete();
+        scheduler.advance(29_999);
+        assertEquals(1, service.polls.size());
+        scheduler.advance(1);
+        assertEquals(2, service.polls.size());
+
+        service.polls.get(1).complete();
+        scheduler.advance(60_000);
+        assertEquals(3, service.polls.size());
+    }
+
+    @Test
+    public void openStreamStopsPollingAndLostStreamPollsAtOnce()
+    {
+        streams.latest().open();
+        assertTrue(feed.isLive());
+        scheduler.advance(120_000);
+        assertTrue(service.polls.isEmpty());
+
+        streams.latest().fail();
+        assertFalse(feed.isLive());
+        scheduler.advance(0);
+        assertEquals(1, service.polls.size());
+        assertEquals(2, liveChanges.size());
+    }
+
+    @Test
+    public void pollInFlightWhenStreamDropsDoesNotStartSecondChain()
+    {
+        // A poll goes out before the stream has connected
+        scheduler.advance(15_000);
+        assertEquals(1, service.polls.size());
+
+        // The stream connects and drops again while that poll is still out
+        streams.latest().open();
+        streams.latest().fail();
+        scheduler.advance(0);
+        assertEquals(2, service.polls.size());
+
+        // The stale poll completing must not schedule another one
+        service.polls.get(0).complete(activity(130));
+        service.polls.get(1).complete(activity(130));
+        scheduler.advance(15_000);
+        assertEquals(3, service.polls.size());
+
+        service.polls.get(2).complete(activity(140));
+        scheduler.advance(15_000);
+        assertEquals(4, service.polls.size());
+    }
+
+    @Test
+    public void stopClosesTheStreamAndEndsCallbacks()
+    {
+        FakeSocket socket = streams.latest();
+        socket.open();
+        feed.stop();
+
+        assertTrue(socket.closed);
+        socket.message(activity(200));
+        socket.fail();
+        scheduler.advance(300_000);
+
+        assertTrue(delivered.isEmpty());
+        assertEquals(1, streams.sockets.size());
+        assertTrue(service.polls.isEmpty());
+    }
+
+    private static String activity(long timestamp)
+    {
+        JsonObject activity = new JsonObject();
+        activity.addProperty("activityType", "KILL");
+        activity.addProperty("timestamp", timestamp);
+        return activity.toString();
+    }
+
+    private static class FakeStreams extends OkHttpClient
+    {
+        private final List<FakeSocket> sockets = new ArrayList<>();
+
+        @Override
+        public WebSocket newWebSocket(Request request, WebSocketListener listener)
+        {
+            FakeSocket socket = new FakeSocket(request, listener);
+            sockets.add(socket);
+            return socket;
+        }
+
+        FakeSocket latest()
+        {
+            return sockets.get(sockets.size() - 1);
+        }
+    }
+
+    private static class FakeSocket implements WebSocket
+    {
+        private final Request request;
+        private final WebSocketListener listener;
+        private boolean closed;
+
+        FakeSocket(Request request, WebSocketListener listener)
+        {
+            this.request = request;
+            this.listener = listener;
+        }
+
+        String url()
+        {
+            return request.url().toString();
+        }
+
+        void open()
+        {
+            listener.onOpen(this, null);
+        }
+
+        void message(String text)
+        {
+            listener.onMessage(this, text);
+        }
+
+        void fail()
+        {
+            listener.onFailure(this, new java.io.IOException("connection reset"), null);
+        }
+
+        @Override
+        public Request request()
+        {
+            return request;
+        }
+
+        @Override
+        public long queueSize()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean send(String text)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean send(ByteString bytes)
+        {
+            return false;
+        }
+
+        @Override
+        public boolean close(int code, String reason)
+        {
+            closed = true;
+            return true;
+        }
+
+        @Override
+        public void cancel()
+        {
+            closed = true;
+        }
+    }
+
+    private static class FakeService extends BingoService
+    {
+        private final List<Poll> polls = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<Optional<JsonArray>> fetchActivitySince(String bingoId, long since)
+        {
+            Poll poll = new Poll(since);
+            polls.add(poll);
+            return poll.result;
+        }
+    }
+
+    private static class Poll
+    {
+        private final long since;
+        private final CompletableFuture<Optional<JsonArray>> result = new CompletableFuture<>();
+
+        Poll(long since)
+        {
+            this.since = since;
+        }
+
+        void complete(String... activities)
+        {
+            JsonArray array = new JsonArray();
+            for (String activity : activities)
+            {
+                array.add(new com.google.gson.Gson().fromJson(activity, JsonObject.class));
+            }
+            result.complete(Optional.of(array));
+        }
+    }
+
+    /**
+     * Runs scheduled tasks on the test thread against a virtual clock
+     */
+    private static class ManualScheduler extends ScheduledThreadPoolExecutor
+    {
+        private final List<ManualTask> tasks = new ArrayList<>();
+        private long now;
+
+        ManualScheduler()
+        {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit)
+        {
+            ManualTask task = new ManualTask(command, now + unit.toMillis(delay));
+            tasks.add(task);
+            return task;
+        }
+
+        void advance(long millis)
+        {
+            long target = now + millis;
+            while (true)
+            {
+                ManualTask next = null;
+                for (ManualTask task : tasks)
+                {
+                    if (!task.isCancelled() && task.at <= target && (next == null || task.at < next.at))
+                    {
+                        next = task;
+                    }
+                }
+                if (next == null)
+                {
+                    break;
+                }
+                tasks.remove(next);
+                now = next.at;
+                next.run();
+            }
+            now = target;
+        }
+
+        private class ManualTask extends FutureTask<Void> implements ScheduledFuture<Void>
+        {
+            private final long at;
+
+            ManualTask(Runnable command, long at)
+            {
+                super(command, null);
+                this.at = at;
+            }
+
+            @Override
+            public long getDelay(TimeUnit unit)
+            {
+                return unit.convert(at - now, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public int compareTo(Delayed other)
+            {
+                return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package wzd.bingo;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@link ActivityPayloadWriter} with the Gson tree and String the batch
+ * payload used to be built from. Run with ./gradlew payloadBenchmark.
+ *
+ * Reports the mean time per batch and the bytes allocated per activity on the
+ * benchmark thread, after a warm-up long enough for both paths to be compiled.
+ */
+public class ActivityPayloadWriterBenchmark
+{
+    private static final int[] BATCH_SIZES = {1, 10, 100};
+    private static final int WARMUP_ACTIVITIES = 2_000_000;
+    private static final int MEASURED_ACTIVITIES = 2_000_000;
+
+    private static long sink;
+
+    public static void main(String[] args) throws Exception
+    {
+        BingoSession.Snapshot session = session();
+        KillCountTracker killCounts = new KillCountTracker();
+        ActivityPayloadWriter writer = new ActivityPayloadWriter();
+
+        System.out.printf("%-12s %-28s %-28s%n", "batch size", "Gson tree + String", "streaming writer");
+        for (int batchSize : BATCH_SIZES)
+        {
+            List<PendingActivity> batch = batch(batchSize);
+            int iterations = MEASURED_ACTIVITIES / batchSize;
+
+            run(() -> sink += treePayload(session, batch, killCounts).length, WARMUP_ACTIVITIES / batchSize);
+            run(() -> {
+                writer.writeBatch(session, batch, killCounts);
+                sink += writer.size();
+            }, WARMUP_ACTIVITIES / batchSize);
+
+            Result tree = run(() -> sink += treePayload(session, batch, killCounts).length, iterations);
+            Result streaming = run(() -> {
+                writer.writeBatch(session, batch, killCounts);
+                sink += writer.size();
+            }, iterations);
+
+            System.out.printf("%-12d %-28s %-28s%n", batchSize, tree.format(iterations, batchSize),
+                streaming.format(iterations, batchSize));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    /**
+     * The payload as it was built before the streaming writer: a JsonObject tree,
+     * serialised to a String and encoded to UTF-8 by the request body
+     */
+    static byte[] treePayload(BingoSession.Snapshot session, List<PendingActivity> activities, KillCountTracker killCounts)
+    {
+        JsonArray items = new JsonArray();
+        for (PendingActivity activity : activities)
+        {
+            JsonObject item = new JsonObject();
+            item.addProperty("activityType", activity.getActivityType());
+            item.addProperty("monsterName", activity.getMonsterName());
+            int totalKc = killCounts.get(activity.getEventId(), activity.getMonsterName());
+            item.addProperty("killCount", activity.getCount());
+            item.addProperty("totalKc", totalKc != KillCountTracker.UNKNOWN ? totalKc : activity.getCount());
+            item.addProperty("timestamp", activity.getCreatedAt() / 1000);
+
+            JsonArray keys = new JsonArray();
+            for (String key : activity.getIdempotencyKeys())
+            {
+                keys.add(key);
+            }
+            item.add("idempotencyKeys", keys);
+
+            if (activity.getDropName() != null)
+            {
+                item.addProperty("dropName", activity.getDropName());
+            }
+            if (activity.getScreenshotUrl() != null)
+            {
+                item.addProperty("screenshotUrl", activity.getScreenshotUrl());
+            }
+            if (activity.getDurationSeconds() > 0)
+            {
+                item.addProperty("durationSeconds", activity.getDurationSeconds());
+            }
+            if (activity.getTeamSize() > 0)
+            {
+                item.addProperty("teamSize", activity.getTeamSize());
+            }
+            items.add(item);
+        }
+
+        JsonObject batchData = new JsonObject();
+        batchData.addProperty("rsn", session.getRsn());
+        batchData.addProperty("teamId", session.getTeamId());
+        batchData.add("activities", items);
+        return batchData.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static BingoSession.Snapshot session()
+    {
+        return new BingoSession.Snapshot("Zezima", 7, "token", "https://example.invalid", 0);
+    }
+
+    /**
+     * A representative mix: mostly coalesced kills, some drops with screenshots
+     */
+    static List<PendingActivity> batch(int size)
+    {
+        List<PendingActivity> activities = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+        {
+            PendingActivity activity;
+            if (i % 4 == 3)
+            {
+                activity = new PendingActivity("event-1", "DROP", "Vorkath", "Dragonbone necklace",
+                    "https://i.imgur.com/abc" + i + ".png", "key-" + i, 1_760_000_000_000L + i);
+            }
+            else
+            {
+                activity = new PendingActivity("event-1", "KILL", "Goblin " + i, null, null, "key-" + i,
+                    1_760_000_000_000L + i);
+                activity.merge(new PendingActivity("event-1", "KILL", "Goblin " + i, null, null, "key-" + i + "b"));
+            }
+            activities.add(activity);
+        }
+        return activities;
+    }
+
+    private static Result run(Task task, int iterations) throws Exception
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++)
+        {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        return new Result(elapsed, allocated);
+    }
+
+    private interface Task
+    {
+        void run() throws Exception;
+    }
+
+    private static class Result
+    {
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        Result(long elapsedNanos, long allocatedBytes)
+        {
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        String format(int iterations, int batchSize)
+        {
+            return String.format("%.2f us, %d B/activity", elapsedNanos / 1000.0 / iterations,
+                allocatedBytes / ((long) iterations * batchSize));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ActivityPayloadWriterTest
+{
+    private static final Gson GSON = new Gson();
+
+    private final KillCountTracker killCounts = new KillCountTracker();
+
+    @Test
+    public void streamedPayloadMatchesTreePayload() throws IOException
+    {
+        List<PendingActivity> batch = ActivityPayloadWriterBenchmark.batch(25);
+        PendingActivity raid = new PendingActivity("event-1", "RAID_COMPLETION", "Theatre of Blood", null, null, "raid");
+        raid.setRaidDetails(1294, 4);
+        batch.add(raid);
+
+        assertSamePayload(batch);
+    }
+
+    @Test
+    public void escapesAndNonAsciiTextEncodeTheSame() throws IOException
+    {
+        PendingActivity activity = new PendingActivity("event-1", "DROP", "K'ril \"Tsutsaroth\"", "Zamorak hilt ☃é",
+            "https://i.imgur.com/a.png?x=1&y=<2>", "key\\1");
+
+        assertSamePayload(Collections.singletonList(activity));
+    }
+
+    @Test
+    public void reusedBuffersHoldOnlyTheLatestBatch() throws IOException
+    {
+        ActivityPayloadWriter writer = new ActivityPayloadWriter();
+        writer.writeBatch(ActivityPayloadWriterBenchmark.session(), ActivityPayloadWriterBenchmark.batch(500), killCounts);
+
+        List<PendingActivity> small = Arrays.asList(
+            new PendingActivity("event-1", "BOSS_KILL", "Vorkath", null, null, "k1", 1_760_000_000_000L));
+        writer.writeBatch(ActivityPayloadWriterBenchmark.session(), small, killCounts);
+
+        assertEquals(parse(ActivityPayloadWriterBenchmark.treePayload(ActivityPayloadWriterBenchmark.session(), small, killCounts)),
+            parse(Arrays.copyOf(writer.array(), writer.size())));
+    }
+
+    @Test
+    public void emptyBatchIsValidJson() throws IOException
+    {
+        assertSamePayload(Collections.emptyList());
+    }
+
+    private void assertSamePayload(List<PendingActivity> batch) throws IOException
+    {
+        ActivityPayloadWriter writer = new ActivityPayloadWriter();
+        writer.writeBatch(ActivityPayloadWriterBenchmark.session(), batch, killCounts);
+
+        JsonElement streamed = parse(Arrays.copyOf(writer.array(), writer.size()));
+        JsonElement tree = parse(ActivityPayloadWriterBenchmark.treePayload(ActivityPayloadWriterBenchmark.session(), batch, killCounts));
+        assertEquals(tree, streamed);
+        assertEquals(batch.size(), ((JsonObject) streamed).getAsJsonArray("activities").size());
+    }
+
+    private static JsonElement parse(byte[] bytes)
+    {
+        return GSON.fromJson(new String(bytes, StandardCharsets.UTF_8), JsonElement.class);
+    }
+}
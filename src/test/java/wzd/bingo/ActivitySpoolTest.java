@@ -0,0 +1,203 @@
+package wzd.bingo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ActivitySpoolTest
+{
+    private static final String EVENT = "event-1";
+
+    private String originalHome;
+    private Path home;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("bingo-spool");
+        System.setProperty("user.home", home.toString());
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        System.setProperty("user.home", originalHome);
+        try (Stream<Path> paths = Files.walk(home))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void recoversUnacknowledgedActivityInNextSession()
+    {
+        ActivitySpool first = new ActivitySpool();
+        PendingActivity activity = activity("DROP", "Vorkath", "key-1");
+        activity.addSpoolId(first.append(activity));
+        first.shutdown();
+
+        List<PendingActivity> recovered = new ActivitySpool().recover();
+        assertEquals(1, recovered.size());
+        PendingActivity replayed = recovered.get(0);
+        assertEquals("DROP", replayed.getActivityType());
+        assertEquals("Vorkath", replayed.getMonsterName());
+        assertEquals(activity.getCreatedAt(), replayed.getCreatedAt());
+        assertEquals(Collections.singletonList("key-1"), replayed.getIdempotencyKeys());
+        assertEquals(activity.getSpoolIds(), replayed.getSpoolIds());
+    }
+
+    @Test
+    public void acknowledgedActivityIsNotRecovered()
+    {
+        ActivitySpool first = new ActivitySpool();
+        long id = first.append(activity("DROP", "Vorkath", "key-1"));
+        first.acknowledge(EVENT, Collections.singletonList(id));
+        first.shutdown();
+
+        assertTrue(new ActivitySpool().recover().isEmpty());
+    }
+
+    @Test
+    public void recoverSkipsEntriesInFlightThisSession()
+    {
+        ActivitySpool spool = new ActivitySpool();
+        spool.append(activity("DROP", "Vorkath", "key-1"));
+
+        assertTrue(spool.recover().isEmpty());
+    }
+
+    @Test
+    public void compactionKeepsOnlyUnacknowledgedAppends() throws IOException
+    {
+        ActivitySpool spool = new ActivitySpool();
+        long acked = spool.append(activity("DROP", "Vorkath", "key-1"));
+        long kept = spool.append(activity("DROP", "Zulrah", "key-2"));
+        spool.acknowledge(EVENT, Collections.singletonList(acked));
+        spool.compactAll();
+
+        List<String> lines = Files.readAllLines(spoolFile(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).startsWith("A\t" + kept + "\t"));
+        spool.shutdown();
+
+        List<PendingActivity> recovered = new ActivitySpool().recover();
+        assertEquals(1, recovered.size());
+        assertEquals("Zulrah", recovered.get(0).getMonsterName());
+    }
+
+    @Test
+    public void compactionDeletesFullyAcknowledgedSpool()
+    {
+        ActivitySpool spool = new ActivitySpool();
+        long id = spool.append(activity("DROP", "Vorkath", "key-1"));
+        spool.acknowledge(EVENT, Collections.singletonList(id));
+        spool.compactAll();
+
+        assertFalse(Files.exists(spoolFile()));
+    }
+
+    @Test
+    public void tornFinalLineIsIgnored() throws IOException
+    {
+        ActivitySpool first = new ActivitySpool();
+        first.append(activity("DROP", "Vorkath", "key-1"));
+        first.shutdown();
+        Files.write(spoolFile(), "A\t12".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        assertEquals(1, new ActivitySpool().recover().size());
+    }
+
+    @Test
+    public void recordIsRejectedAfterMaxReplays() throws IOException
+    {
+        ActivitySpool first = new ActivitySpool();
+        first.append(activity("DROP", "Vorkath", "key-1"));
+        first.shutdown();
+
+        for (int session = 1; session <= ActivitySpool.MAX_REPLAYS; session++)
+        {
+            ActivitySpool spool = new ActivitySpool();
+            assertEquals("session " + session, 1, spool.recover().size());
+            if (session == 2)
+            {
+                // Replay counts must survive compaction
+                long other = spool.append(activity("DROP", "Zulrah", "key-2"));
+                spool.acknowledge(EVENT, Collections.singletonList(other));
+                spool.compactAll();
+            }
+            spool.shutdown();
+        }
+
+        ActivitySpool last = new ActivitySpool();
+        assertTrue(last.recover().isEmpty());
+        last.shutdown();
+
+        List<String> rejected = Files.readAllLines(rejectedFile(), StandardCharsets.UTF_8);
+        assertEquals(1, rejected.size());
+        assertTrue(rejected.get(0).startsWith("replayed " + ActivitySpool.MAX_REPLAYS + " times\t"));
+        assertTrue(new ActivitySpool().recover().isEmpty());
+    }
+
+    @Test
+    public void rejectedActivitiesAreMovedOutOfTheSpool() throws IOException
+    {
+        ActivitySpool spool = new ActivitySpool();
+        PendingActivity first = activity("KILL", "Goblin", "key-1");
+        first.addSpoolId(spool.append(first));
+        PendingActivity second = activity("KILL", "Goblin", "key-2");
+        second.addSpoolId(spool.append(second));
+        first.merge(second);
+
+        spool.reject(EVENT, Collections.singletonList(first), "HTTP 422");
+        spool.shutdown();
+
+        assertTrue(new ActivitySpool().recover().isEmpty());
+        List<String> rejected = Files.readAllLines(rejectedFile(), StandardCharsets.UTF_8);
+        assertEquals(1, rejected.size());
+        String[] parts = rejected.get(0).split("\t", 3);
+        assertEquals("HTTP 422", parts[0]);
+        assertEquals(first.getSpoolIds().get(0) + "," + first.getSpoolIds().get(1), parts[1]);
+        assertTrue(parts[2].contains("\"monsterName\":\"Goblin\""));
+    }
+
+    @Test
+    public void closedSpoolRefusesLateWrites()
+    {
+        ActivitySpool spool = new ActivitySpool();
+        spool.shutdown();
+        spool.append(activity("DROP", "Vorkath", "key-1"));
+        spool.shutdown();
+
+        assertFalse(Files.exists(spoolFile()));
+    }
+
+    private static PendingActivity activity(String type, String monster, String key)
+    {
+        return new PendingActivity(EVENT, type, monster, null, null, key);
+    }
+
+    private Path spoolFile()
+    {
+        return home.resolve(".runelite").resolve("bingo").resolve(EVENT).resolve("activity.spool");
+    }
+
+    private Path rejectedFile()
+    {
+        return home.resolve(".runelite").resolve("bingo").resolve(EVENT).resolve("activity.rejected");
+    }
+}
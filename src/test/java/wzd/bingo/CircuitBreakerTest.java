@@ -0,0 +1,169 @@
+package wzd.bingo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest
+{
+    private long now = 1_000_000;
+
+    private final CircuitBreaker breaker = new CircuitBreaker("GET /api/bingo/board", () -> now);
+
+    @Test
+    public void staysClosedBelowThreshold()
+    {
+        fail(4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures()
+    {
+        fail(4);
+        breaker.recordSuccess();
+        fail(4);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void opensAfterThresholdAndFailsFast()
+    {
+        fail(5);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(15_000, breaker.getRemainingOpenMs());
+
+        now += 14_999;
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.getRemainingOpenMs());
+    }
+
+    @Test
+    public void letsOneProbeThroughOnceOpenPeriodPasses()
+    {
+        fail(5);
+        now += 15_000;
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(0, breaker.getRemainingOpenMs());
+    }
+
+    @Test
+    public void successfulProbeCloses()
+    {
+        fail(5);
+        now += 15_000;
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbeReopensForTwiceAsLong()
+    {
+        fail(5);
+        now += 15_000;
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(30_000, breaker.getRemainingOpenMs());
+
+        now += 30_000;
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void openPeriodIsCapped()
+    {
+        fail(5);
+        for (int i = 0; i < 10; i++)
+        {
+            now += breaker.getRemainingOpenMs();
+            assertTrue(breaker.allowRequest());
+            breaker.recordFailure();
+        }
+        assertEquals(5 * 60_000, breaker.getRemainingOpenMs());
+    }
+
+    @Test
+    public void probeThatThrowsAfter2xxStillCloses()
+    {
+        fail(5);
+        now += 15_000;
+        assertTrue(breaker.allowRequest());
+
+        // BingoApiClient settles a 2xx whose body failed to decode as a success
+        breaker.recordSuccess();
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void probeThatThrowsOnErrorResponseAllowsAnotherProbeLater()
+    {
+        fail(5);
+        now += 15_000;
+        assertTrue(breaker.allowRequest());
+
+        // Anything else that throws is settled as a failure rather than left half-open
+        breaker.recordFailure();
+        assertFalse(breaker.allowRequest());
+
+        now += breaker.getRemainingOpenMs();
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void releasedProbeFreesSlotWithoutClosing()
+    {
+        fail(5);
+        now += 15_000;
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+
+        breaker.releaseProbe();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(0, breaker.getRemainingOpenMs());
+
+        // The next caller becomes the probe, and one failure still reopens at the doubled period
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        breaker.recordFailure();
+        assertEquals(30_000, breaker.getRemainingOpenMs());
+    }
+
+    @Test
+    public void releaseProbeLeavesClosedCircuitAlone()
+    {
+        fail(4);
+        breaker.releaseProbe();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void endpointGroupsRequestsByLeadingSegments()
+    {
+        assertEquals("/api/bingo/board", CircuitBreakers.endpointOf("/api/bingo/board/Zezima?team=3"));
+        assertEquals("/api/bingo/activity", CircuitBreakers.endpointOf("/api/bingo/activity/abc/batch"));
+        assertEquals("/api/secrets", CircuitBreakers.endpointOf("/api/secrets"));
+    }
+
+    private void fail(int times)
+    {
+        for (int i = 0; i < times; i++)
+        {
+            breaker.recordFailure();
+        }
+    }
+}
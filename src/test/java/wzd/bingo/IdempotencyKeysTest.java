@@ -0,0 +1,95 @@
+package wzd.bingo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdempotencyKeysTest
+{
+    private final IdempotencyKeys keys = new IdempotencyKeys();
+
+    @Test
+    public void keysAreSixteenUrlSafeCharacters()
+    {
+        String key = keys.forActivity("event-1", "Zezima", "DROP", 8059, 1200);
+        assertEquals(16, key.length());
+        assertTrue(key, key.matches("[A-Za-z0-9_-]{16}"));
+    }
+
+    @Test
+    public void activitiesOnTheSameTickGetDistinctKeys()
+    {
+        String first = keys.forActivity("event-1", "Zezima", "DROP", 8059, 1200);
+        String second = keys.forActivity("event-1", "Zezima", "DROP", 8059, 1200);
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void raidCompletionKeyIsStable()
+    {
+        String key = keys.forRaidCompletion("event-1", "Zezima", "Theatre of Blood", 12);
+        assertEquals(key, keys.forRaidCompletion("event-1", "Zezima", "Theatre of Blood", 12));
+        assertEquals(key, new IdempotencyKeys().forRaidCompletion("event-1", "Zezima", "Theatre of Blood", 12));
+        assertNotEquals(key, keys.forRaidCompletion("event-1", "Zezima", "Theatre of Blood", 13));
+        assertNotEquals(key, keys.forRaidCompletion("event-1", "Lynx", "Theatre of Blood", 12));
+    }
+
+    @Test
+    public void legacySpoolKeyIsStableAcrossReplays()
+    {
+        assertEquals(keys.forLegacySpoolRecord("event-1", 42), new IdempotencyKeys().forLegacySpoolRecord("event-1", 42));
+        assertNotEquals(keys.forLegacySpoolRecord("event-1", 42), keys.forLegacySpoolRecord("event-1", 43));
+    }
+
+    @Test
+    public void fieldBoundariesAreSignificant()
+    {
+        assertNotEquals(keys.forLegacySpoolRecord("event-1", 23), keys.forLegacySpoolRecord("event-12", 3));
+        assertNotEquals(keys.forRaidCompletion("ab", "c", "Raid", 1), keys.forRaidCompletion("a", "bc", "Raid", 1));
+    }
+
+    @Test
+    public void tileSubmissionsGetDistinctKeys()
+    {
+        assertNotEquals(keys.forTileSubmission("Zezima", "tile-1", "MANUAL"), keys.forTileSubmission("Zezima", "tile-1", "MANUAL"));
+    }
+
+    @Test
+    public void tracksAcceptedKeys()
+    {
+        assertFalse(keys.isAccepted("abc"));
+        assertFalse(keys.isAccepted(null));
+
+        keys.markAccepted(Arrays.asList("abc", "def"));
+        assertTrue(keys.isAccepted("abc"));
+        assertTrue(keys.isAccepted("def"));
+        assertFalse(keys.isAccepted("ghi"));
+    }
+
+    @Test
+    public void acceptedWindowEvictsLeastRecentlyUsed()
+    {
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 4096; i++)
+        {
+            batch.add("key-" + i);
+        }
+        keys.markAccepted(batch);
+
+        // Touching the oldest key keeps it in the window
+        assertTrue(keys.isAccepted("key-0"));
+        keys.markAccepted(Collections.singletonList("key-new"));
+
+        assertTrue(keys.isAccepted("key-0"));
+        assertFalse(keys.isAccepted("key-1"));
+        assertTrue(keys.isAccepted("key-new"));
+    }
+}
@@ -0,0 +1,85 @@
+package wzd.bingo;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IntHashSetTest
+{
+    @Test
+    public void addReportsWhetherValueWasNew()
+    {
+        IntHashSet set = new IntHashSet();
+        assertTrue(set.add(7));
+        assertFalse(set.add(7));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void containsOnlyAddedValues()
+    {
+        IntHashSet set = IntHashSet.of(0, 1, 8059, 12077);
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(8059));
+        assertTrue(set.contains(12077));
+        assertFalse(set.contains(2));
+        assertFalse(set.contains(-1));
+    }
+
+    @Test
+    public void growsPastInitialCapacity()
+    {
+        IntHashSet set = new IntHashSet(1);
+        set.addRange(1000, 2999);
+
+        assertEquals(2000, set.size());
+        for (int value = 1000; value <= 2999; value++)
+        {
+            assertTrue(set.contains(value));
+        }
+        assertFalse(set.contains(999));
+        assertFalse(set.contains(3000));
+    }
+
+    @Test
+    public void agreesWithHashSetOnRandomIds()
+    {
+        Random random = new Random(42);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 5000; i++)
+        {
+            int value = random.nextInt(30000);
+            assertEquals(expected.add(value), set.add(value));
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = 0; value < 30000; value++)
+        {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    public void clearRemovesEverything()
+    {
+        IntHashSet set = IntHashSet.of(1, 2, 3);
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(2));
+        assertTrue(set.add(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeValues()
+    {
+        new IntHashSet().add(-5);
+    }
+}
@@ -0,0 +1,175 @@
+package wzd.bingo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KillCountTrackerTest
+{
+    private static final String EVENT = "event-1";
+
+    private String originalHome;
+    private Path home;
+    private BingoExecutors executors;
+    private KillCountTracker tracker;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        originalHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("bingo-kc");
+        System.setProperty("user.home", home.toString());
+
+        executors = new BingoExecutors();
+        executors.start();
+        tracker = new KillCountTracker(executors);
+        tracker.setEvent(EVENT);
+        drainIo();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        executors.shutdown();
+        System.setProperty("user.home", originalHome);
+        try (Stream<Path> paths = Files.walk(home))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void readsBossKillCount()
+    {
+        assertTrue(tracker.onGameMessage("Your Vorkath kill count is: 123."));
+        assertEquals(123, tracker.get(EVENT, "Vorkath"));
+    }
+
+    @Test
+    public void readsCountsWithSeparatorsAndTags()
+    {
+        assertTrue(tracker.onGameMessage("Your <col=ff0000>Zulrah</col> kill count is: <col=ff0000>1,234</col>."));
+        assertEquals(1234, tracker.get(EVENT, "zulrah"));
+    }
+
+    @Test
+    public void readsOtherCountKinds()
+    {
+        assertTrue(tracker.onGameMessage("Your Barrows chest count is: 50."));
+        assertTrue(tracker.onGameMessage("Your Gauntlet completion count is: 7."));
+        assertEquals(50, tracker.get(EVENT, "Barrows"));
+        assertEquals(7, tracker.get(EVENT, "Gauntlet"));
+    }
+
+    @Test
+    public void readsRaidCompletionCountWithMode()
+    {
+        assertTrue(tracker.onGameMessage("Your completed Theatre of Blood: Hard Mode count is: 12."));
+        assertEquals(12, tracker.get(EVENT, "Theatre of Blood: Hard Mode"));
+    }
+
+    @Test
+    public void ignoresUnrelatedMessages()
+    {
+        assertFalse(tracker.onGameMessage("Fight duration: 1:23. Personal best: 1:10"));
+        assertFalse(tracker.onGameMessage("Your Vorkath kill count is: lots."));
+        assertFalse(tracker.onGameMessage(null));
+    }
+
+    @Test
+    public void ignoresMessagesWithoutEvent()
+    {
+        tracker.setEvent(null);
+        assertFalse(tracker.onGameMessage("Your Vorkath kill count is: 123."));
+    }
+
+    @Test
+    public void npcNameFindsCountReportedUnderChatName()
+    {
+        tracker.onGameMessage("Your Nightmare kill count is: 40.");
+        tracker.onGameMessage("Your Grotesque Guardians kill count is: 88.");
+        tracker.onGameMessage("Your Corrupted Gauntlet completion count is: 9.");
+
+        assertEquals(40, tracker.get(EVENT, "The Nightmare"));
+        assertEquals(88, tracker.get(EVENT, "Dusk"));
+        assertEquals(88, tracker.get(EVENT, "Dawn"));
+        assertEquals(9, tracker.get(EVENT, "Corrupted Hunllef"));
+    }
+
+    @Test
+    public void dagannothKingsKeepSeparateCounts()
+    {
+        tracker.onGameMessage("Your Dagannoth Rex kill count is: 300.");
+        tracker.onGameMessage("Your Dagannoth Prime kill count is: 310.");
+
+        assertEquals(300, tracker.get(EVENT, "Dagannoth Rex"));
+        assertEquals(310, tracker.get(EVENT, "Dagannoth Prime"));
+        assertEquals(KillCountTracker.UNKNOWN, tracker.get(EVENT, "Dagannoth Supreme"));
+    }
+
+    @Test
+    public void raidBossFindsMostRecentlyReportedMode()
+    {
+        tracker.onGameMessage("Your completed Theatre of Blood count is: 100.");
+        assertEquals(100, tracker.get(EVENT, "Verzik Vitur"));
+
+        tracker.onGameMessage("Your completed Theatre of Blood: Hard Mode count is: 12.");
+        assertEquals(12, tracker.get(EVENT, "Verzik Vitur"));
+
+        tracker.onGameMessage("Your completed Chambers of Xeric count is: 45.");
+        assertEquals(45, tracker.get(EVENT, "Great Olm"));
+
+        tracker.onGameMessage("Your completed Tombs of Amascut: Expert Mode count is: 3.");
+        assertEquals(3, tracker.get(EVENT, "Tumeken's Warden"));
+        assertEquals(3, tracker.get(EVENT, "Elidinis' Warden"));
+    }
+
+    @Test
+    public void unknownForOtherEventOrName()
+    {
+        tracker.onGameMessage("Your Vorkath kill count is: 123.");
+        assertEquals(KillCountTracker.UNKNOWN, tracker.get("event-2", "Vorkath"));
+        assertEquals(KillCountTracker.UNKNOWN, tracker.get(EVENT, "Zulrah"));
+        assertEquals(KillCountTracker.UNKNOWN, tracker.get(EVENT, null));
+    }
+
+    @Test
+    public void countsSurviveRestart() throws Exception
+    {
+        tracker.onGameMessage("Your Nightmare kill count is: 40.");
+        tracker.flush();
+        drainIo();
+
+        KillCountTracker restarted = new KillCountTracker(executors);
+        restarted.setEvent(EVENT);
+        drainIo();
+
+        assertEquals(40, restarted.get(EVENT, "Nightmare"));
+        assertEquals(40, restarted.get(EVENT, "The Nightmare"));
+    }
+
+    /**
+     * Wait for the loads and saves handed to the io pool, which has several threads
+     */
+    private void drainIo() throws InterruptedException
+    {
+        ThreadPoolExecutor io = (ThreadPoolExecutor) executors.io();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (io.getCompletedTaskCount() < io.getTaskCount())
+        {
+            assertTrue("io pool did not drain", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package wzd.bingo;
+
+import net.runelite.api.Client;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class RaidCompletionTrackerTest
+{
+    private final Map<Integer, Integer> varbits = new HashMap<>();
+    private final RaidCompletionTracker tracker = new RaidCompletionTracker(client(varbits));
+
+    @Test
+    public void parsesDurations()
+    {
+        assertEquals(25 * 60 + 34, RaidCompletionTracker.parseDuration("25:34"));
+        assertEquals(21 * 60 + 34, RaidCompletionTracker.parseDuration("21:34.20"));
+        assertEquals(21 * 60 + 35, RaidCompletionTracker.parseDuration("21:34.60"));
+        assertEquals(3600 + 2 * 60 + 5, RaidCompletionTracker.parseDuration("1:02:05"));
+        assertEquals(RaidCompletionTracker.UNKNOWN, RaidCompletionTracker.parseDuration("1:xx"));
+    }
+
+    @Test
+    public void coxCompletionCarriesTeamSizeAndDuration()
+    {
+        assertNull(tracker.onGameMessage(
+            "<col=ef20ff>Congratulations - your raid is complete!</col> Team size: <col=ff0000>3 players</col> Duration:</col> <col=ff0000>25:34</col>", 100));
+
+        RaidCompletionTracker.RaidCompletion completion =
+            tracker.onGameMessage("Your completed Chambers of Xeric count is: <col=ff0000>1,045</col>.", 101);
+
+        assertNotNull(completion);
+        assertEquals("Chambers of Xeric", completion.getRaidName());
+        assertEquals(1045, completion.getCompletionCount());
+        assertEquals(25 * 60 + 34, completion.getDurationSeconds());
+        assertEquals(3, completion.getTeamSize());
+    }
+
+    @Test
+    public void coxSoloCountsAsOnePlayer()
+    {
+        tracker.onGameMessage("Congratulations - your raid is complete! Team size: Solo Duration: 30:00", 100);
+        RaidCompletionTracker.RaidCompletion completion =
+            tracker.onGameMessage("Your completed Chambers of Xeric Challenge Mode count is: 4.", 101);
+
+        assertEquals("Chambers of Xeric Challenge Mode", completion.getRaidName());
+        assertEquals(1, completion.getTeamSize());
+    }
+
+    @Test
+    public void tobCompletionReadsPartyFromVarbits()
+    {
+        varbits.put(6442, 30);
+        varbits.put(6443, 27);
+        varbits.put(6444, 12);
+
+        tracker.onGameMessage("Theatre of Blood total completion time: 21:34.20 (new personal best)", 200);
+        RaidCompletionTracker.RaidCompletion completion =
+            tracker.onGameMessage("Your completed Theatre of Blood: Hard Mode count is: 12.", 201);
+
+        assertEquals("Theatre of Blood: Hard Mode", completion.getRaidName());
+        assertEquals(21 * 60 + 34, completion.getDurationSeconds());
+        assertEquals(3, completion.getTeamSize());
+    }
+
+    @Test
+    public void roomDurationIsNotTheRaidDuration()
+    {
+        tracker.onGameMessage("Wave 'The Maiden of Sugadinti' (Normal Mode) complete! Duration: 1:52.20", 100);
+        RaidCompletionTracker.RaidCompletion completion =
+            tracker.onGameMessage("Your completed Theatre of Blood count is: 7.", 500);
+
+        assertEquals(RaidCompletionTracker.UNKNOWN, completion.getDurationSeconds());
+    }
+
+    @Test
+    public void staleDetailsAreNotAttached()
+    {
+        tracker.onGameMessage("Congratulations - your raid is complete! Team size: 3 players Duration: 25:34", 100);
+        RaidCompletionTracker.RaidCompletion completion =
+            tracker.onGameMessage("Your completed Chambers of Xeric count is: 5.", 201);
+
+        assertEquals(RaidCompletionTracker.UNKNOWN, completion.getDurationSeconds());
+        assertEquals(RaidCompletionTracker.UNKNOWN, completion.getTeamSize());
+    }
+
+    @Test
+    public void detailsAreUsedOnce()
+    {
+        tracker.onGameMessage("Congratulations - your raid is complete! Team size: 2 players Duration: 25:34", 100);
+        tracker.onGameMessage("Your completed Chambers of Xeric count is: 5.", 101);
+        RaidCompletionTracker.RaidCompletion next =
+            tracker.onGameMessage("Your completed Chambers of Xeric count is: 6.", 102);
+
+        assertEquals(RaidCompletionTracker.UNKNOWN, next.getDurationSeconds());
+        assertEquals(RaidCompletionTracker.UNKNOWN, next.getTeamSize());
+    }
+
+    @Test
+    public void repeatedCompletionMessageIsIgnored()
+    {
+        assertNotNull(tracker.onGameMessage("Your completed Chambers of Xeric count is: 5.", 100));
+        assertNull(tracker.onGameMessage("Your completed Chambers of Xeric count is: 5.", 105));
+        assertNotNull(tracker.onGameMessage("Your completed Chambers of Xeric Challenge Mode count is: 5.", 110));
+    }
+
+    @Test
+    public void ignoresOtherMessages()
+    {
+        assertNull(tracker.onGameMessage("Your Vorkath kill count is: 123.", 100));
+        assertNull(tracker.onGameMessage(null, 100));
+    }
+
+    private static Client client(Map<Integer, Integer> varbits)
+    {
+        return (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class},
+            (proxy, method, args) -> {
+                if ("getVarbitValue".equals(method.getName()))
+                {
+                    return varbits.getOrDefault((Integer) args[0], 0);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
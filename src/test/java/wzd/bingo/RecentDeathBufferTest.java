@@ -0,0 +1,77 @@
+package wzd.bingo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RecentDeathBufferTest
+{
+    private static final int INDEX = 12;
+    private static final int NPC_ID = 2042;
+
+    @Test
+    public void claimReturnsDeathTickOnce()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(8, 50);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 100);
+
+        assertEquals(100, buffer.claim(INDEX, NPC_ID, 3201, 3199, 0, 102));
+        assertEquals(RecentDeathBuffer.ALREADY_CLAIMED, buffer.claim(INDEX, NPC_ID, 3201, 3199, 0, 103));
+    }
+
+    @Test
+    public void noMatchOutsideWindow()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(8, 50);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 100);
+
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX, NPC_ID, 3200, 3200, 0, 151));
+    }
+
+    @Test
+    public void noMatchForDifferentNpcOrLocation()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(8, 50);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 100);
+
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX + 1, NPC_ID, 3200, 3200, 0, 101));
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX, NPC_ID + 1, 3200, 3200, 0, 101));
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX, NPC_ID, 3200, 3200, 1, 101));
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX, NPC_ID, 3205, 3200, 0, 101));
+        assertEquals(100, buffer.claim(INDEX, NPC_ID, 3204, 3196, 0, 101));
+    }
+
+    @Test
+    public void respawnedNpcMatchesLatestDeath()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(8, 50);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 100);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 120);
+
+        assertEquals(120, buffer.claim(INDEX, NPC_ID, 3200, 3200, 0, 121));
+        assertEquals(RecentDeathBuffer.ALREADY_CLAIMED, buffer.claim(INDEX, NPC_ID, 3200, 3200, 0, 122));
+    }
+
+    @Test
+    public void oldestDeathIsOverwrittenWhenFull()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(2, 50);
+        buffer.record(1, NPC_ID, 3200, 3200, 0, 100);
+        buffer.record(2, NPC_ID, 3200, 3200, 0, 101);
+        buffer.record(3, NPC_ID, 3200, 3200, 0, 102);
+
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(1, NPC_ID, 3200, 3200, 0, 103));
+        assertEquals(101, buffer.claim(2, NPC_ID, 3200, 3200, 0, 103));
+        assertEquals(102, buffer.claim(3, NPC_ID, 3200, 3200, 0, 103));
+    }
+
+    @Test
+    public void clearForgetsEverything()
+    {
+        RecentDeathBuffer buffer = new RecentDeathBuffer(8, 50);
+        buffer.record(INDEX, NPC_ID, 3200, 3200, 0, 100);
+        buffer.clear();
+
+        assertEquals(RecentDeathBuffer.NO_MATCH, buffer.claim(INDEX, NPC_ID, 3200, 3200, 0, 101));
+    }
+}
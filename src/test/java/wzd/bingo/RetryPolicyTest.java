@@ -0,0 +1,96 @@
+package wzd.bingo;
+
+import org.junit.Test;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest
+{
+    private final RetryPolicy policy = new RetryPolicy(4, 1_000, 10_000);
+
+    @Test
+    public void retriesUntilMaxAttempts()
+    {
+        assertTrue(policy.canRetry(1));
+        assertTrue(policy.canRetry(3));
+        assertFalse(policy.canRetry(4));
+    }
+
+    @Test
+    public void delayStaysWithinExponentialCeiling()
+    {
+        for (int i = 0; i < 200; i++)
+        {
+            assertBetween(0, 1_000, policy.delayMs(1, RetryPolicy.NO_RETRY_AFTER));
+            assertBetween(0, 2_000, policy.delayMs(2, RetryPolicy.NO_RETRY_AFTER));
+            assertBetween(0, 4_000, policy.delayMs(3, RetryPolicy.NO_RETRY_AFTER));
+            assertBetween(0, 10_000, policy.delayMs(30, RetryPolicy.NO_RETRY_AFTER));
+        }
+    }
+
+    @Test
+    public void retryAfterIsALowerBound()
+    {
+        for (int i = 0; i < 200; i++)
+        {
+            assertBetween(5_000, 5_000, policy.delayMs(1, 5_000));
+            assertBetween(2_000, 4_000, policy.delayMs(3, 2_000));
+        }
+    }
+
+    @Test
+    public void retryAfterBeyondMaxDelayGivesUp()
+    {
+        assertTrue(policy.delayMs(1, 10_001) < 0);
+        assertEquals(10_000, policy.delayMs(1, 10_000));
+    }
+
+    @Test
+    public void retryableStatuses()
+    {
+        assertTrue(RetryPolicy.isRetryableStatus(408));
+        assertTrue(RetryPolicy.isRetryableStatus(429));
+        assertTrue(RetryPolicy.isRetryableStatus(500));
+        assertTrue(RetryPolicy.isRetryableStatus(503));
+        assertFalse(RetryPolicy.isRetryableStatus(400));
+        assertFalse(RetryPolicy.isRetryableStatus(401));
+        assertFalse(RetryPolicy.isRetryableStatus(404));
+    }
+
+    @Test
+    public void parsesRetryAfterSeconds()
+    {
+        assertEquals(120_000, RetryPolicy.parseRetryAfter("120"));
+        assertEquals(3_000, RetryPolicy.parseRetryAfter(" 3 "));
+        assertEquals(0, RetryPolicy.parseRetryAfter("-5"));
+    }
+
+    @Test
+    public void parsesRetryAfterHttpDate()
+    {
+        String header = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60));
+        assertBetween(55_000, 60_000, RetryPolicy.parseRetryAfter(header));
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusSeconds(60));
+        assertEquals(0, RetryPolicy.parseRetryAfter(past));
+    }
+
+    @Test
+    public void missingOrUnreadableRetryAfter()
+    {
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter(null));
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter(""));
+        assertEquals(RetryPolicy.NO_RETRY_AFTER, RetryPolicy.parseRetryAfter("soon"));
+    }
+
+    private static void assertBetween(long min, long max, long actual)
+    {
+        assertTrue(actual + " not in [" + min + ", " + max + "]", actual >= min && actual <= max);
+    }
+}
@@ -0,0 +1,99 @@
+package wzd.bingo;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TileRuleIndexTest
+{
+    private static final int VORKATH = 8061;
+    private static final int ZULRAH = 2042;
+    private static final int DRAGONBONE_NECKLACE = 22111;
+    private static final int TANZANITE_FANG = 12922;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void allowsEverythingUntilCompiled()
+    {
+        TileRuleIndex index = new TileRuleIndex();
+
+        assertTrue(index.matchesKill("BOSS_KILL", VORKATH));
+        assertTrue(index.acceptsAnyDrop());
+        assertFalse(index.matchesItem(DRAGONBONE_NECKLACE));
+    }
+
+    @Test
+    public void readsInlineRulesWithSingleAndArrayIds()
+    {
+        TileRuleIndex index = compile("{\"tiles\":["
+            + "{\"id\":\"t1\",\"activityType\":\"BOSS_KILL\",\"npcId\":" + VORKATH + "},"
+            + "{\"tileId\":\"t2\",\"type\":\"drop\",\"itemIds\":[" + DRAGONBONE_NECKLACE + "," + TANZANITE_FANG + "]}"
+            + "]}");
+
+        assertTrue(index.matchesKill("BOSS_KILL", VORKATH));
+        assertFalse(index.matchesKill("BOSS_KILL", ZULRAH));
+        assertTrue(index.matchesItem(DRAGONBONE_NECKLACE));
+        assertTrue(index.matchesItem(TANZANITE_FANG));
+        assertFalse(index.acceptsAnyDrop());
+    }
+
+    @Test
+    public void readsTilesNestedUnderBoardAndRequirementArrays()
+    {
+        TileRuleIndex index = compile("{\"board\":{\"tiles\":["
+            + "{\"id\":\"t1\",\"requirements\":["
+            + "{\"activityType\":\"BOSS_KILL\",\"npcIds\":[" + VORKATH + "]},"
+            + "{\"activityType\":\"BOSS_KILL\",\"npcIds\":[" + ZULRAH + "]}"
+            + "]},"
+            + "{\"id\":\"t2\",\"npcId\":" + ZULRAH + "}"
+            + "]}}");
+
+        assertTrue(index.matchesKill("BOSS_KILL", VORKATH));
+        assertTrue(index.matchesKill("BOSS_KILL", ZULRAH));
+        assertFalse(index.matchesKill("BOSS_KILL", 1));
+    }
+
+    @Test
+    public void ruleWithoutIdsOpensItsActivityType()
+    {
+        TileRuleIndex index = compile("{\"tiles\":[{\"id\":\"t1\",\"activityType\":\"drop\"}]}");
+
+        assertTrue(index.acceptsAnyDrop());
+        assertFalse(index.matchesKill("KILL", ZULRAH));
+    }
+
+    @Test
+    public void skipsMalformedTilesAndIds()
+    {
+        TileRuleIndex index = compile("{\"tiles\":["
+            + "\"not a tile\","
+            + "{\"activityType\":\"BOSS_KILL\",\"npcId\":" + ZULRAH + "},"
+            + "{\"id\":\"t1\",\"npcIds\":[\"vorkath\"]},"
+            + "{\"id\":\"t2\",\"npcId\":" + VORKATH + ",\"itemId\":null}"
+            + "]}");
+
+        assertTrue(index.matchesKill("BOSS_KILL", VORKATH));
+        assertFalse(index.matchesKill("BOSS_KILL", ZULRAH));
+    }
+
+    @Test
+    public void boardWithoutTilesDisablesFiltering()
+    {
+        TileRuleIndex index = compile("{\"tiles\":[{\"id\":\"t1\",\"npcId\":" + VORKATH + "}]}");
+        index.compile(gson.fromJson("{\"name\":\"empty\"}", JsonObject.class));
+
+        assertTrue(index.matchesKill("KILL", ZULRAH));
+        assertTrue(index.acceptsAnyDrop());
+    }
+
+    private TileRuleIndex compile(String json)
+    {
+        TileRuleIndex index = new TileRuleIndex();
+        index.compile(gson.fromJson(json, JsonObject.class));
+        return index;
+    }
+}
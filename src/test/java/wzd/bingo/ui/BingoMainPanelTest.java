@@ -0,0 +1,167 @@
+package wzd.bingo.ui;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.junit.Test;
+import wzd.bingo.ActivityFeedSubscription;
+import wzd.bingo.BingoActivityHandler;
+import wzd.bingo.BingoConfig;
+import wzd.bingo.BingoService;
+
+import javax.swing.ListModel;
+import javax.swing.SwingUtilities;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class BingoMainPanelTest
+{
+    private static final String EVENT = "event-1";
+
+    private final FakeService service = new FakeService();
+
+    @Test
+    public void feedFillsLogAfterFailedFirstLoad() throws Exception
+    {
+        BingoMainPanel panel = onEdt(() -> new BingoMainPanel(config(), service, null, new IdleActivityHandler(), null));
+        onEdt(() -> {
+            panel.showActivityLog(EVENT);
+            return null;
+        });
+        flushEdt();
+
+        ListModel<BingoMainPanel.ActivityLogEntry> log = panel.getActivityLogModel();
+        assertEquals(1, log.getSize());
+        assertEquals("ERROR", log.getElementAt(0).getActivityType());
+
+        // The feed starts from the beginning since nothing was loaded
+        assertNotNull(service.listener);
+        assertEquals(0L, service.since);
+
+        JsonArray pushed = new JsonArray();
+        pushed.add(activity("Zezima", 1_700_000_000L));
+        pushed.add(activity("Lynx", 1_700_000_060L));
+        service.listener.onActivities(pushed);
+        flushEdt();
+
+        assertEquals(2, log.getSize());
+        assertEquals("Zezima", log.getElementAt(0).getPlayerRsn());
+        assertEquals("Lynx", log.getElementAt(1).getPlayerRsn());
+
+        onEdt(() -> {
+            panel.shutdown();
+            return null;
+        });
+    }
+
+    private static JsonObject activity(String rsn, long timestamp)
+    {
+        JsonObject activity = new JsonObject();
+        activity.addProperty("playerRsn", rsn);
+        activity.addProperty("activityType", "BOSS_KILL");
+        activity.addProperty("monsterName", "Vorkath");
+        activity.addProperty("timestamp", Long.toString(timestamp));
+        activity.addProperty("teamId", 7);
+        return activity;
+    }
+
+    private static BingoConfig config()
+    {
+        return (BingoConfig) Proxy.newProxyInstance(BingoConfig.class.getClassLoader(), new Class<?>[]{BingoConfig.class},
+            (proxy, method, args) -> {
+                Class<?> type = method.getReturnType();
+                if (type == boolean.class)
+                {
+                    return false;
+                }
+                if (type == int.class)
+                {
+                    return 0;
+                }
+                if (type == long.class)
+                {
+                    return 0L;
+                }
+                return type == String.class ? "" : null;
+            });
+    }
+
+    private static <T> T onEdt(java.util.concurrent.Callable<T> task) throws Exception
+    {
+        Object[] result = new Object[1];
+        Exception[] failure = new Exception[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try
+            {
+                result[0] = task.call();
+            }
+            catch (Exception e)
+            {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null)
+        {
+            throw failure[0];
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    private static void flushEdt() throws Exception
+    {
+        // Twice, since handlers on the event thread queue follow-up work of their own
+        SwingUtilities.invokeAndWait(() -> { });
+        SwingUtilities.invokeAndWait(() -> { });
+    }
+
+    private static class IdleActivityHandler extends BingoActivityHandler
+    {
+        @Override
+        public void setParticipating(boolean participating, String eventId)
+        {
+        }
+    }
+
+    private static class FakeService extends BingoService
+    {
+        private ActivityFeedSubscription.Listener listener;
+        private long since = -1;
+
+        @Override
+        public Optional<JsonObject> getCachedActiveEvents()
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public CompletableFuture<Optional<JsonObject>> fetchActiveEvents()
+        {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public Optional<JsonObject> getCachedActivityLog(String bingoId)
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public CompletableFuture<Optional<JsonObject>> fetchActivityLog(String bingoId)
+        {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        @Override
+        public ActivityFeedSubscription subscribeToActivity(String bingoId, long since, ActivityFeedSubscription.Listener listener)
+        {
+            this.listener = listener;
+            this.since = since;
+            return null;
+        }
+    }
+}